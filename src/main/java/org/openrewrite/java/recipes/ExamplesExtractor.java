@@ -15,8 +15,9 @@
  */
 package org.openrewrite.java.recipes;
 
-import lombok.Getter;
+import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
 import org.openrewrite.config.RecipeExample;
@@ -32,22 +33,53 @@ import org.openrewrite.text.PlainText;
 import org.openrewrite.tree.ParseError;
 import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.YamlParser;
+import org.openrewrite.yaml.tree.Yaml;
+import org.openrewrite.yaml.tree.Yaml.Document;
 import org.openrewrite.yaml.tree.Yaml.Documents;
-import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.DumperOptions.FlowStyle;
+import org.yaml.snakeyaml.DumperOptions.ScalarStyle;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
 
-import java.io.StringWriter;
+import java.io.*;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
 import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
+@Value
+@EqualsAndHashCode(callSuper = false)
 public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumulator> {
 
     private static final String DOCUMENT_EXAMPLE = "org.openrewrite.DocumentExample";
+    private static final String ACCUMULATORS = "org.openrewrite.java.recipes.ExamplesExtractor.accumulators";
     private static final AnnotationMatcher DOCUMENT_EXAMPLE_ANNOTATION_MATCHER = new AnnotationMatcher("@" + DOCUMENT_EXAMPLE);
 
     private static final MethodMatcher DEFAULTS_METHOD_MATCHER = new MethodMatcher(
@@ -65,16 +97,86 @@ public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumula
     private static final MethodMatcher PATH_METHOD_MATCHER = new MethodMatcher("org.openrewrite.test.SourceSpec path(java.lang.String)");
     private static final MethodMatcher RECIPE_METHOD_MATCHER = new MethodMatcher("org.openrewrite.test.RecipeSpec#recipe*(..)");
 
-    @Getter
-    final String displayName = "Extract documentation examples from tests";
+    // The name of an examples file written when sharding by package or recipe, named after its qualified name
+    private static final Pattern SHARD_FILE_NAME = Pattern.compile("examples-([\\w$]+\\.)+[\\w$]+\\.yml");
 
-    @Getter
-    final String description = "Extract the before/after sources from tests annotated with `@DocumentExample`, " +
+    @Option(displayName = "Spill threshold",
+            description = "The number of bytes of example before/after texts to keep in memory while scanning. " +
+                    "Texts of further examples are appended to a temporary file and read back when the examples " +
+                    "files are printed. By default, all texts are kept in memory.",
+            example = "67108864",
+            required = false)
+    @Nullable
+    Long spillThreshold;
+
+    @Option(displayName = "Module mappings",
+            description = "Mappings from the directory of a module with `@DocumentExample` tests to the directory of " +
+                    "the module whose `examples.yml` receives their examples, written as `from=to`. " +
+                    "When not set, examples from `rewrite-java-test` are written to `rewrite-java`.",
+            example = "rewrite-java-test=rewrite-java",
+            required = false)
+    @Nullable
+    List<String> moduleMappings;
+
+    @Option(displayName = "Shard by",
+            description = "Write the examples of a module to a single `examples.yml` (`module`), or to one " +
+                    "`examples-<name>.yml` next to it per recipe package (`package`) or per recipe (`recipe`), " +
+                    "so that a change to the examples of one recipe only rewrites a small file. When sharding by package " +
+                    "or recipe, files named like a shard that are no longer written are removed, while `examples.yml` " +
+                    "and other examples files are kept. Defaults to `module`.",
+            valid = {"module", "package", "recipe"},
+            example = "package",
+            required = false)
+    @Nullable
+    String shardBy;
+
+    @Option(displayName = "Cache file",
+            description = "A local file keeping the examples extracted from each test source across runs, keyed by " +
+                    "the fingerprint of the test source and the version of this recipe, so that the test sources " +
+                    "that did not change since the last run are not visited again. It also keeps a fingerprint of " +
+                    "the examples of each recipe, so that the examples of a recipe whose test sources did not change " +
+                    "are not printed again to compare them with the examples file, which assumes the examples files " +
+                    "written by the last run were kept.",
+            example = "build/examples-cache.bin",
+            required = false)
+    @Nullable
+    String cacheFile;
+
+    String displayName = "Extract documentation examples from tests";
+
+    String description = "Extract the before/after sources from tests annotated with `@DocumentExample`, " +
             "and generate a YAML file with those examples to be shown in the documentation to show usage.";
 
+    @Override
+    public Validated<Object> validate() {
+        Validated<Object> validated = super.validate();
+        if (moduleMappings != null) {
+            for (String mapping : moduleMappings) {
+                validated = validated.and(Validated.test("moduleMappings", "Module mappings must be written as `from=to`",
+                        mapping, m -> m.indexOf('=') > 0 && m.indexOf('=') < m.length() - 1));
+            }
+        }
+        return validated.and(Validated.test("shardBy", "Shard by must be one of `module`, `package` or `recipe`",
+                shardBy, s -> s == null || "module".equals(s) || "package".equals(s) || "recipe".equals(s)));
+    }
+
     @Override
     public Accumulator getInitialValue(ExecutionContext ctx) {
-        return new Accumulator();
+        Accumulator acc = new Accumulator(spillThreshold, new TargetPaths(moduleMappings),
+                cacheFile == null ? null : new ExamplesCache(Paths.get(cacheFile)));
+        ctx.<Set<Accumulator>>computeMessageIfAbsent(ACCUMULATORS, k -> ConcurrentHashMap.newKeySet()).add(acc);
+        return acc;
+    }
+
+    @Override
+    public void onComplete(ExecutionContext ctx) {
+        // Any cycle may read spilled texts back, so the source log is only deleted once the whole run completes
+        Set<Accumulator> accumulators = ctx.pollMessage(ACCUMULATORS);
+        if (accumulators != null) {
+            for (Accumulator acc : accumulators) {
+                acc.deleteSourceLog();
+            }
+        }
     }
 
     @Override
@@ -94,7 +196,7 @@ public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumula
                         @Override
                         public Documents visitDocuments(Documents documents, ExecutionContext ctx) {
                             Path sourcePath = documents.getSourcePath();
-                            if (sourcePath.endsWith("examples.yml")) {
+                            if (isExamplesFile(sourcePath)) {
                                 acc.existingExampleFiles.add(sourcePath);
                             }
                             return documents;
@@ -111,6 +213,62 @@ public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumula
 
     @Override
     public Collection<? extends SourceFile> generate(Accumulator acc, ExecutionContext ctx) {
+        // Merge in test source path order, so the output does not depend on the order sources were scanned in
+        Map<Path, Map<String, List<TargetedExample>>> projectRecipeExamples = new HashMap<>();
+        // Target example file path -> RecipeName -> Test source paths and fingerprints its examples are extracted from
+        Map<Path, Map<String, Map<Path, @Nullable String>>> recipeSources = new HashMap<>();
+        for (Map.Entry<Path, ExtractedExamples> entry : new TreeMap<>(acc.extractedExamples).entrySet()) {
+            ExtractedExamples extracted = entry.getValue();
+            for (TargetedExample targeted : extracted.examples) {
+                Path examplesFile = shard(targeted.targetPath, targeted.recipeName);
+                projectRecipeExamples
+                        .computeIfAbsent(examplesFile, key -> new TreeMap<>())
+                        .computeIfAbsent(targeted.recipeName, key -> new ArrayList<>()).add(targeted);
+                recipeSources
+                        .computeIfAbsent(examplesFile, key -> new HashMap<>())
+                        .computeIfAbsent(targeted.recipeName, key -> new LinkedHashMap<>())
+                        .put(entry.getKey(), extracted.fingerprint);
+            }
+        }
+        for (Map<String, List<TargetedExample>> recipeExamples : projectRecipeExamples.values()) {
+            for (List<TargetedExample> examples : recipeExamples.values()) {
+                examples.sort(comparing(targeted -> targeted.example.getDescription()));
+            }
+        }
+        acc.projectRecipeExamples = projectRecipeExamples;
+
+        Map<Path, Map<String, String>> recipeFingerprints = new HashMap<>();
+        recipeSources.forEach((examplesFile, recipes) -> recipes.forEach((recipeName, sources) -> {
+            String fingerprint = recipeFingerprint(recipeName, sources);
+            if (fingerprint != null) {
+                recipeFingerprints.computeIfAbsent(examplesFile, key -> new HashMap<>()).put(recipeName, fingerprint);
+            }
+        }));
+        acc.recipeFingerprints = recipeFingerprints;
+
+        ExamplesCache cache = acc.cache;
+        if (cache != null && acc.cacheWritten.compareAndSet(false, true)) {
+            // Written before the examples files are printed, while spilled texts can still be read back
+            cache.write(new TreeMap<>(acc.extractedExamples), acc::examples, recipeFingerprints);
+        }
+
+        // Shard files written by the other shard mode would publish the same examples twice. Only files named like
+        // a shard are removed, and none when writing a single file per module, so hand-written files are kept
+        if ("package".equals(shardBy) || "recipe".equals(shardBy)) {
+            Set<Path> targetDirectories = new HashSet<>();
+            for (Path targetPath : projectRecipeExamples.keySet()) {
+                targetDirectories.add(targetPath.getParent());
+            }
+            Set<Path> staleExampleFiles = new HashSet<>();
+            for (Path existing : acc.existingExampleFiles) {
+                if (targetDirectories.contains(existing.getParent()) && !projectRecipeExamples.containsKey(existing) &&
+                        SHARD_FILE_NAME.matcher(existing.getFileName().toString()).matches()) {
+                    staleExampleFiles.add(existing);
+                }
+            }
+            acc.staleExampleFiles = staleExampleFiles;
+        }
+
         @SuppressWarnings("OptionalGetWithoutIsPresent")
         Documents emptyDoc = YamlParser.builder().build()
                 .parse("---\n")
@@ -128,45 +286,787 @@ public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumula
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
         return new YamlIsoVisitor<ExecutionContext>() {
+            @Override
+            public @Nullable Yaml visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof Documents && acc.staleExampleFiles.contains(((Documents) tree).getSourcePath())) {
+                    return null;
+                }
+                return super.visit(tree, ctx);
+            }
+
             @Override
             public Documents visitDocuments(Documents existingDocuments, ExecutionContext ctx) {
-                Map<String, List<RecipeExample>> recipeExamples = acc.projectRecipeExamples.get(existingDocuments.getSourcePath());
-                if (recipeExamples == null || recipeExamples.isEmpty()) {
+                Map<String, List<TargetedExample>> recipeExamples = acc.projectRecipeExamples.get(existingDocuments.getSourcePath());
+                if (recipeExamples == null || recipeExamples.isEmpty() ||
+                        acc.printedExampleFiles.contains(existingDocuments.getSourcePath())) {
+                    // Printed already, for instance in an earlier cycle
                     return existingDocuments;
                 }
-                String yaml = new YamlPrinter().print(acc.licenseHeader, recipeExamples);
-                List<SourceFile> yamlDocuments = YamlParser.builder().build().parse(yaml).collect(toList());
-                if (yamlDocuments.isEmpty()) {
-                    return existingDocuments;
+                try {
+                    return print(existingDocuments, recipeExamples);
+                } finally {
+                    acc.printed(existingDocuments.getSourcePath());
+                }
+            }
+
+            private Documents print(Documents existingDocuments, Map<String, List<TargetedExample>> recipeExamples) {
+                YamlPrinter printer = new YamlPrinter();
+                String licenseHeader = printer.printLicenseHeader(acc.licenseHeader);
+                List<Document> existing = existingDocuments.getDocuments();
+                if (existing.size() != recipeExamples.size() || !licenseHeader.equals(existing.get(0).getPrefix())) {
+                    StringBuilder yaml = new StringBuilder(licenseHeader);
+                    for (Map.Entry<String, List<TargetedExample>> recipeEntry : recipeExamples.entrySet()) {
+                        // Spilled texts are read back one recipe at a time
+                        yaml.append(printer.print(recipeEntry.getKey(), acc.examples(recipeEntry.getValue())));
+                    }
+                    return replaceDocuments(existingDocuments, yaml.toString());
                 }
-                SourceFile first = yamlDocuments.get(0);
-                if (first instanceof ParseError) {
-                    return existingDocuments.withMarkers(first.getMarkers());
+
+                // Same number of recipes, so compare document by document and only reparse what changed
+                Path examplesFile = existingDocuments.getSourcePath();
+                ExamplesCache cache = acc.cache;
+                Map<String, String> recipeFingerprints = acc.recipeFingerprints.getOrDefault(examplesFile, emptyMap());
+                List<Integer> changed = new ArrayList<>();
+                List<String> changedDocuments = new ArrayList<>();
+                int index = 0;
+                for (Map.Entry<String, List<TargetedExample>> recipeEntry : recipeExamples.entrySet()) {
+                    Document existingDocument = existing.get(index);
+                    String recipeName = recipeEntry.getKey();
+                    String fingerprint = recipeFingerprints.get(recipeName);
+                    // Examples printed by the last run from the same test sources are neither printed nor compared
+                    if (cache == null || fingerprint == null ||
+                            !fingerprint.equals(cache.recipeFingerprint(examplesFile, recipeName)) ||
+                            !recipeName.equals(recipeName(existingDocument))) {
+                        String recipeDocument = printer.print(recipeName, acc.examples(recipeEntry.getValue()));
+                        if (!sameDocument(existingDocument.withPrefix("").print(getCursor()), recipeDocument)) {
+                            changed.add(index);
+                            changedDocuments.add(recipeDocument);
+                        }
+                    }
+                    index++;
                 }
-                if (first instanceof Documents && !first.printAll().equals(existingDocuments.printAll())) {
-                    return existingDocuments.withDocuments(((Documents) first).getDocuments());
+                if (changed.isEmpty()) {
+                    return existingDocuments;
+                }
+
+                List<SourceFile> parsed = YamlParser.builder().build()
+                        .parse(changedDocuments.toArray(new String[0]))
+                        .collect(toList());
+                List<Document> documents = new ArrayList<>(existing);
+                for (int i = 0; i < parsed.size(); i++) {
+                    SourceFile sourceFile = parsed.get(i);
+                    if (sourceFile instanceof ParseError) {
+                        return existingDocuments.withMarkers(sourceFile.getMarkers());
+                    }
+                    if (sourceFile instanceof Documents && !((Documents) sourceFile).getDocuments().isEmpty()) {
+                        // Keep the surrounding whitespace of the replaced document, which depends on its position
+                        Document replaced = documents.get(changed.get(i));
+                        documents.set(changed.get(i), ((Documents) sourceFile).getDocuments().get(0)
+                                .withPrefix(replaced.getPrefix())
+                                .withEnd(replaced.getEnd()));
+                    }
                 }
-                return existingDocuments;
+                return existingDocuments.withDocuments(documents);
             }
         };
     }
 
+    private Path shard(Path examplesFile, String recipeName) {
+        if ("recipe".equals(shardBy)) {
+            return examplesFile.resolveSibling("examples-" + recipeName + ".yml");
+        } else if ("package".equals(shardBy)) {
+            int lastDot = recipeName.lastIndexOf('.');
+            return examplesFile.resolveSibling("examples-" + (lastDot < 0 ? recipeName : recipeName.substring(0, lastDot)) + ".yml");
+        }
+        return examplesFile;
+    }
+
+    /**
+     * @return A fingerprint of the examples of a recipe, from the test sources they are extracted from, or null when
+     * one of the test sources has no fingerprint.
+     */
+    private static @Nullable String recipeFingerprint(String recipeName, Map<Path, @Nullable String> sources) {
+        StringBuilder fingerprints = new StringBuilder(recipeName).append('\n');
+        for (Map.Entry<Path, @Nullable String> source : sources.entrySet()) {
+            if (source.getValue() == null) {
+                return null;
+            }
+            fingerprints.append(source.getKey()).append(' ').append(source.getValue()).append('\n');
+        }
+        return Sha256.hash(fingerprints.toString());
+    }
+
+    private static @Nullable String recipeName(Document document) {
+        if (document.getBlock() instanceof Yaml.Mapping) {
+            for (Yaml.Mapping.Entry entry : ((Yaml.Mapping) document.getBlock()).getEntries()) {
+                if ("recipeName".equals(entry.getKey().getValue()) && entry.getValue() instanceof Yaml.Scalar) {
+                    return ((Yaml.Scalar) entry.getValue()).getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isExamplesFile(Path sourcePath) {
+        String fileName = sourcePath.getFileName().toString();
+        return "examples.yml".equals(fileName) || fileName.startsWith("examples-") && fileName.endsWith(".yml");
+    }
+
+    private static Documents replaceDocuments(Documents existingDocuments, String yaml) {
+        List<SourceFile> yamlDocuments = YamlParser.builder().build().parse(yaml).collect(toList());
+        if (yamlDocuments.isEmpty()) {
+            return existingDocuments;
+        }
+        SourceFile first = yamlDocuments.get(0);
+        if (first instanceof ParseError) {
+            return existingDocuments.withMarkers(first.getMarkers());
+        }
+        if (first instanceof Documents && !first.printAll().equals(existingDocuments.printAll())) {
+            return existingDocuments.withDocuments(((Documents) first).getDocuments());
+        }
+        return existingDocuments;
+    }
+
+    /**
+     * Documents are compared ignoring trailing whitespace, which belongs to the separator with the next document.
+     */
+    private static boolean sameDocument(String existing, String printed) {
+        int existingEnd = existing.length();
+        while (existingEnd > 0 && Character.isWhitespace(existing.charAt(existingEnd - 1))) {
+            existingEnd--;
+        }
+        int printedEnd = printed.length();
+        while (printedEnd > 0 && Character.isWhitespace(printed.charAt(printedEnd - 1))) {
+            printedEnd--;
+        }
+        return existingEnd == printedEnd && existing.regionMatches(0, printed, 0, existingEnd);
+    }
+
     public static class Accumulator {
         @Nullable
-        String licenseHeader;
+        volatile String licenseHeader;
+
+        @Nullable
+        final Long spillThreshold;
+        final TargetPaths targetPaths;
+        final AtomicLong retainedTextBytes = new AtomicLong();
+
+        @Nullable
+        final ExamplesCache cache;
+        final AtomicBoolean cacheWritten = new AtomicBoolean();
+
+        @Nullable
+        volatile SourceLog sourceLog;
+
+        // Sources may be scanned concurrently, so everything written while scanning is thread-safe
+        final Set<Path> existingExampleFiles = ConcurrentHashMap.newKeySet();
+        // Test source path -> Examples extracted from it, so sources unchanged since an earlier cycle are not visited again
+        final Map<Path, ExtractedExamples> extractedExamples = new ConcurrentHashMap<>();
+        // Source text -> The single instance of it kept in memory, shared by all examples with that before or after
+        final Map<String, String> sourceTexts = new ConcurrentHashMap<>();
+        // Target example file path -> RecipeName -> Examples, merged from `extractedExamples` in `generate()`
+        volatile Map<Path, Map<String, List<TargetedExample>>> projectRecipeExamples = emptyMap();
+        // Target example file path -> RecipeName -> Fingerprint of its examples, when all its test sources have one
+        volatile Map<Path, Map<String, String>> recipeFingerprints = emptyMap();
+        // Existing shard files next to the target example files that are no longer written to
+        volatile Set<Path> staleExampleFiles = emptySet();
+        // Target example files printed so far, so a later cycle does not print them again
+        final Set<Path> printedExampleFiles = ConcurrentHashMap.newKeySet();
+
+        Accumulator(@Nullable Long spillThreshold, TargetPaths targetPaths, @Nullable ExamplesCache cache) {
+            this.spillThreshold = spillThreshold;
+            this.targetPaths = targetPaths;
+            this.cache = cache;
+        }
+
+        /**
+         * Keeps the texts of the examples in memory while they fit under the spill threshold, and moves them to the
+         * source log otherwise. Texts kept in memory are interned, so the same fixture used by several tests is
+         * only held once.
+         */
+        void retain(List<TargetedExample> examples) {
+            if (examples.isEmpty()) {
+                return;
+            }
+            if (spillThreshold != null) {
+                // Only texts not interned yet take up more memory
+                long bytes = 0;
+                for (TargetedExample targeted : examples) {
+                    for (RecipeExample.Source source : targeted.example.getSources()) {
+                        bytes += pooledBytes(source.getBefore()) + pooledBytes(source.getAfter());
+                    }
+                }
+                // Examples replaced after a source changed stay counted, which only makes spilling start earlier
+                if (retainedTextBytes.addAndGet(bytes) > spillThreshold) {
+                    retainedTextBytes.addAndGet(-bytes);
+                    sourceLog().spill(examples);
+                    return;
+                }
+            }
+            for (TargetedExample targeted : examples) {
+                for (RecipeExample.Source source : targeted.example.getSources()) {
+                    source.setBefore(sourceTexts.computeIfAbsent(source.getBefore(), text -> text));
+                    if (source.getAfter() != null) {
+                        source.setAfter(sourceTexts.computeIfAbsent(source.getAfter(), text -> text));
+                    }
+                }
+            }
+        }
+
+        private long pooledBytes(@Nullable String text) {
+            return text == null || sourceTexts.containsKey(text) ? 0 : 2L * text.length();
+        }
+
+        /**
+         * @return The examples with the texts of their sources, read back from the source log if they were spilled.
+         */
+        List<RecipeExample> examples(List<TargetedExample> examples) {
+            SourceLog log = sourceLog;
+            if (log == null) {
+                return examples.stream().map(targeted -> targeted.example).collect(toList());
+            }
+            return log.read(examples);
+        }
+
+        private synchronized SourceLog sourceLog() {
+            if (sourceLog == null) {
+                sourceLog = new SourceLog();
+            }
+            return sourceLog;
+        }
+
+        void printed(Path examplesFile) {
+            printedExampleFiles.add(examplesFile);
+        }
+
+        synchronized void deleteSourceLog() {
+            SourceLog log = sourceLog;
+            if (log != null) {
+                sourceLog = null;
+                log.delete();
+            }
+        }
+    }
+
+    /**
+     * Append-only temporary file holding the before/after texts of spilled examples. Each text is written as the
+     * length of its UTF-8 bytes followed by the bytes, or as -1 when absent. The file is deleted once the recipe run
+     * completes, and otherwise when the JVM exits.
+     */
+    static class SourceLog {
+        final Path file;
+        private long length;
+
+        SourceLog() {
+            try {
+                file = Files.createTempFile("examples", ".log");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            file.toFile().deleteOnExit();
+        }
+
+        synchronized void spill(List<TargetedExample> examples) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.APPEND)))) {
+                for (TargetedExample targeted : examples) {
+                    targeted.spilledAt = length + out.size();
+                    for (RecipeExample.Source source : targeted.example.getSources()) {
+                        write(out, source.getBefore());
+                        write(out, source.getAfter());
+                    }
+                }
+                length += out.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (TargetedExample targeted : examples) {
+                for (RecipeExample.Source source : targeted.example.getSources()) {
+                    source.setBefore("");
+                    source.setAfter(null);
+                }
+            }
+        }
+
+        List<RecipeExample> read(List<TargetedExample> examples) {
+            List<RecipeExample> read = new ArrayList<>(examples.size());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                for (TargetedExample targeted : examples) {
+                    if (targeted.spilledAt < 0) {
+                        read.add(targeted.example);
+                        continue;
+                    }
+                    channel.position(targeted.spilledAt);
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                    List<RecipeExample.Source> sources = new ArrayList<>(targeted.example.getSources().size());
+                    for (RecipeExample.Source spilled : targeted.example.getSources()) {
+                        RecipeExample.Source source = new RecipeExample.Source("", null, null, "");
+                        String before = read(in);
+                        source.setBefore(before == null ? "" : before);
+                        source.setAfter(read(in));
+                        source.setPath(spilled.getPath());
+                        source.setLanguage(spilled.getLanguage());
+                        sources.add(source);
+                    }
+                    RecipeExample example = new RecipeExample();
+                    example.setDescription(targeted.example.getDescription());
+                    example.setParameters(targeted.example.getParameters());
+                    example.setSources(sources);
+                    read.add(example);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return read;
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static void write(DataOutputStream out, @Nullable String text) throws IOException {
+            if (text == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = text.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static @Nullable String read(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, UTF_8);
+        }
+    }
+
+    /**
+     * The examples extracted by an earlier run, read from the cache file. The file starts with the version of the
+     * recipe that wrote it and the number of records, followed by one record per test source with its path, its
+     * fingerprint and the length of its examples, so that only the examples of unchanged test sources are read back.
+     * These are followed by the number and the list of the fingerprints of the examples of each recipe, with the
+     * examples file and name of the recipe. Texts are written like in the {@link SourceLog}.
+     */
+    static class ExamplesCache {
+        // Incremented when the layout of the cache file changes
+        private static final int SCHEMA = 3;
+        private static final String VERSION = "examples-cache-" + SCHEMA + ":" + recipeVersion();
+
+        private final Path file;
+
+        // Test source path -> Fingerprint and offset of its examples in the cache file, as read when the run started
+        private final Map<Path, CachedExamples> cached = new HashMap<>();
+
+        // Target example file path -> RecipeName -> Fingerprint of its examples, as printed by the run writing the cache
+        private final Map<Path, Map<String, String>> recipeFingerprints = new HashMap<>();
+
+        ExamplesCache(Path file) {
+            this.file = file;
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (CountingInputStream counting = new CountingInputStream(
+                    new BufferedInputStream(Files.newInputStream(file)));
+                 DataInputStream in = new DataInputStream(counting)) {
+                if (!VERSION.equals(SourceLog.read(in))) {
+                    return;
+                }
+                int records = in.readInt();
+                for (int i = 0; i < records; i++) {
+                    Path sourcePath = Paths.get(requireNonNull(SourceLog.read(in)));
+                    String fingerprint = requireNonNull(SourceLog.read(in));
+                    int length = in.readInt();
+                    cached.put(sourcePath, new CachedExamples(fingerprint, counting.count));
+                    for (int skipped = 0; skipped < length; ) {
+                        int n = in.skipBytes(length - skipped);
+                        if (n <= 0) {
+                            throw new EOFException();
+                        }
+                        skipped += n;
+                    }
+                }
+                int fingerprints = in.readInt();
+                for (int i = 0; i < fingerprints; i++) {
+                    Path examplesFile = Paths.get(requireNonNull(SourceLog.read(in)));
+                    String recipeName = requireNonNull(SourceLog.read(in));
+                    recipeFingerprints.computeIfAbsent(examplesFile, k -> new HashMap<>())
+                            .put(recipeName, requireNonNull(SourceLog.read(in)));
+                }
+            } catch (IOException e) {
+                // An unreadable cache is ignored, and replaced at the end of the run
+                cached.clear();
+                recipeFingerprints.clear();
+            }
+        }
+
+        /**
+         * @return The fingerprint of the examples of the recipe printed to the examples file by the run writing the cache.
+         */
+        @Nullable String recipeFingerprint(Path examplesFile, String recipeName) {
+            return recipeFingerprints.getOrDefault(examplesFile, emptyMap()).get(recipeName);
+        }
+
+        /**
+         * @return The examples of the test source, when it had the same fingerprint in the run writing the cache.
+         */
+        @Nullable List<TargetedExample> read(Path sourcePath, String fingerprint, Path targetPath) {
+            CachedExamples examples = cached.get(sourcePath);
+            if (examples == null || !examples.fingerprint.equals(fingerprint)) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.position(examples.offset);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                int count = in.readInt();
+                List<TargetedExample> read = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String recipeName = requireNonNull(SourceLog.read(in));
+                    RecipeExample example = new RecipeExample();
+                    example.setDescription(SourceLog.read(in));
+                    int parameterCount = in.readInt();
+                    List<String> parameters = new ArrayList<>(parameterCount);
+                    for (int j = 0; j < parameterCount; j++) {
+                        parameters.add(SourceLog.read(in));
+                    }
+                    example.setParameters(parameters);
+                    int sourceCount = in.readInt();
+                    List<RecipeExample.Source> sources = new ArrayList<>(sourceCount);
+                    for (int j = 0; j < sourceCount; j++) {
+                        String before = SourceLog.read(in);
+                        RecipeExample.Source source = new RecipeExample.Source(before == null ? "" : before, null, null, "");
+                        source.setAfter(SourceLog.read(in));
+                        source.setPath(SourceLog.read(in));
+                        String language = SourceLog.read(in);
+                        source.setLanguage(language == null ? "" : language);
+                        sources.add(source);
+                    }
+                    example.setSources(sources);
+                    read.add(new TargetedExample(targetPath, recipeName, example));
+                }
+                return read;
+            } catch (IOException e) {
+                // Visited again instead
+                return null;
+            }
+        }
+
+        /**
+         * Replaces the cache file with the examples of the test sources that have a fingerprint, and with the
+         * fingerprints of the examples of the recipes.
+         */
+        void write(Map<Path, ExtractedExamples> extractedExamples,
+                   Function<List<TargetedExample>, List<RecipeExample>> texts,
+                   Map<Path, Map<String, String>> recipeFingerprints) {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Path partial = file.resolveSibling(file.getFileName() + ".partial");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                    SourceLog.write(out, VERSION);
+                    int records = 0;
+                    for (ExtractedExamples extracted : extractedExamples.values()) {
+                        if (extracted.fingerprint != null) {
+                            records++;
+                        }
+                    }
+                    out.writeInt(records);
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    for (Map.Entry<Path, ExtractedExamples> entry : extractedExamples.entrySet()) {
+                        ExtractedExamples extracted = entry.getValue();
+                        if (extracted.fingerprint == null) {
+                            continue;
+                        }
+                        buffer.reset();
+                        DataOutputStream examplesOut = new DataOutputStream(buffer);
+                        List<RecipeExample> examples = texts.apply(extracted.examples);
+                        examplesOut.writeInt(examples.size());
+                        for (int i = 0; i < examples.size(); i++) {
+                            RecipeExample example = examples.get(i);
+                            SourceLog.write(examplesOut, extracted.examples.get(i).recipeName);
+                            SourceLog.write(examplesOut, example.getDescription());
+                            examplesOut.writeInt(example.getParameters().size());
+                            for (String parameter : example.getParameters()) {
+                                SourceLog.write(examplesOut, parameter);
+                            }
+                            examplesOut.writeInt(example.getSources().size());
+                            for (RecipeExample.Source source : example.getSources()) {
+                                SourceLog.write(examplesOut, source.getBefore());
+                                SourceLog.write(examplesOut, source.getAfter());
+                                SourceLog.write(examplesOut, source.getPath());
+                                SourceLog.write(examplesOut, source.getLanguage());
+                            }
+                        }
+                        examplesOut.flush();
+                        SourceLog.write(out, entry.getKey().toString());
+                        SourceLog.write(out, extracted.fingerprint);
+                        out.writeInt(buffer.size());
+                        buffer.writeTo(out);
+                    }
+                    int fingerprints = 0;
+                    for (Map<String, String> recipes : recipeFingerprints.values()) {
+                        fingerprints += recipes.size();
+                    }
+                    out.writeInt(fingerprints);
+                    for (Map.Entry<Path, Map<String, String>> examplesFile : recipeFingerprints.entrySet()) {
+                        for (Map.Entry<String, String> recipe : examplesFile.getValue().entrySet()) {
+                            SourceLog.write(out, examplesFile.getKey().toString());
+                            SourceLog.write(out, recipe.getKey());
+                            SourceLog.write(out, recipe.getValue());
+                        }
+                    }
+                }
+                Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return The version of the jar this recipe is packaged in. When it is not packaged, as in tests and IDE runs,
+         * a hash of its class files instead, so that a cache written before the recipe was changed is not read back.
+         */
+        private static String recipeVersion() {
+            String version = ExamplesExtractor.class.getPackage().getImplementationVersion();
+            if (version != null) {
+                return version;
+            }
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                List<Class<?>> classes = new ArrayList<>();
+                classes.add(ExamplesExtractor.class);
+                classes.addAll(Arrays.asList(ExamplesExtractor.class.getDeclaredClasses()));
+                for (Class<?> recipeClass : classes) {
+                    String classFile = recipeClass.getName().substring(recipeClass.getName().lastIndexOf('.') + 1) + ".class";
+                    try (InputStream in = recipeClass.getResourceAsStream(classFile)) {
+                        if (in != null) {
+                            byte[] buffer = new byte[8192];
+                            int n;
+                            while ((n = in.read(buffer)) > 0) {
+                                digest.update(buffer, 0, n);
+                            }
+                        }
+                    }
+                }
+                return Sha256.hex(digest.digest());
+            } catch (IOException | NoSuchAlgorithmException e) {
+                // Never matches the version of an earlier run, so the cache is not read back
+                return UUID.randomUUID().toString();
+            }
+        }
+
+        @RequiredArgsConstructor
+        private static class CachedExamples {
+            final String fingerprint;
+            final long offset;
+        }
+
+        private static class CountingInputStream extends FilterInputStream {
+            long count;
+
+            CountingInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                int read = super.read();
+                if (read >= 0) {
+                    count++;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    count += read;
+                }
+                return read;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                count += skipped;
+                return skipped;
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    static class ExtractedExamples {
+        /**
+         * The test source the examples were extracted from, which a later cycle only passes again when unchanged.
+         */
+        final Reference<SourceFile> source;
+
+        /**
+         * Fingerprint of the test source as parsed, when written to the examples cache.
+         */
+        @Nullable
+        final String fingerprint;
 
-        final List<Path> existingExampleFiles = new ArrayList<>();
-        // Target example file path -> RecipeName -> Examples
-        final Map<Path, Map<String, List<RecipeExample>>> projectRecipeExamples = new HashMap<>();
+        /**
+         * The examples file of the test source's module, resolved once for all examples in the test source.
+         */
+        final Path targetPath;
+
+        final List<TargetedExample> examples = new ArrayList<>();
+    }
+
+    /**
+     * Resolves the examples file to write the examples of a test source to, from the module directory the test
+     * source is in. The mappings are indexed by module directory once, so resolving a test source only looks up
+     * the trailing directories of its module.
+     */
+    static class TargetPaths {
+        private static final String EXAMPLES_YML = "src/main/resources/META-INF/rewrite/examples.yml";
+
+        // Trailing directories of a module directory -> Module directory to write the examples to instead
+        private final Map<Path, Path> moduleMappings = new HashMap<>();
+        private int maxDepth;
+
+        TargetPaths(@Nullable List<String> mappings) {
+            for (String mapping : mappings == null ? singletonList("rewrite-java-test=rewrite-java") : mappings) {
+                int separator = mapping.indexOf('=');
+                if (separator > 0 && separator < mapping.length() - 1) {
+                    Path from = Paths.get(mapping.substring(0, separator).trim());
+                    moduleMappings.put(from, Paths.get(mapping.substring(separator + 1).trim()));
+                    maxDepth = Math.max(maxDepth, from.getNameCount());
+                }
+            }
+        }
+
+        Path resolve(Path testSourcePath) {
+            String path = PathUtils.separatorsToUnix(testSourcePath.toString());
+            int src = path.indexOf("src/");
+            Path module = Paths.get(src < 0 ? "" : path.substring(0, src));
+            int depth = module.getNameCount();
+            // Longest match first
+            for (int i = Math.max(0, depth - maxDepth); i < depth; i++) {
+                Path mapped = moduleMappings.get(module.subpath(i, depth));
+                if (mapped != null) {
+                    module = i == 0 ? mapped : module.subpath(0, i).resolve(mapped);
+                    break;
+                }
+            }
+            return module.resolve(EXAMPLES_YML);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static class TargetedExample {
+        final Path targetPath;
+        final String recipeName;
+        final RecipeExample example;
+
+        /**
+         * Offset of the texts of the example's sources in the {@link SourceLog}, or -1 when kept in memory.
+         */
+        volatile long spilledAt = -1;
     }
 
     @RequiredArgsConstructor
     static class ExamplesExtractorVisitor extends JavaIsoVisitor<ExecutionContext> {
         private static final String RECIPE_KEY = "recipeName";
         private static final String DESCRIPTION_KEY = "description";
+        private static final String EXTRACTED_KEY = "extracted";
 
         private final Accumulator acc;
 
+        // Reused for every spec and `rewriteRun` in the visited sources
+        private final RecipeSpecFinder recipeSpecFinder = new RecipeSpecFinder();
+        private final Annotated.Matcher documentExampleMatcher = new Annotated.Matcher(DOCUMENT_EXAMPLE_ANNOTATION_MATCHER);
+        private final JavaIsoVisitor<RecipeExample.Source> sourcePathFinder = new JavaIsoVisitor<RecipeExample.Source>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, RecipeExample.Source source) {
+                if (PATH_METHOD_MATCHER.matches(method) && method.getArguments().get(0) instanceof J.Literal) {
+                    source.setPath((String) ((J.Literal) method.getArguments().get(0)).getValue());
+                }
+                return method;
+            }
+        };
+        private final JavaIsoVisitor<Set<RecipeExample.Source>> sourcesFinder = new JavaIsoVisitor<Set<RecipeExample.Source>>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Set<RecipeExample.Source> sources) {
+                method = super.visitMethodInvocation(method, sources);
+
+                RecipeExample.Source source = new RecipeExample.Source("", null, null, "");
+                String language;
+                if (BUILD_GRADLE_METHOD_MATCHER.matches(method)) {
+                    source.setPath("build.gradle");
+                    language = "groovy";
+                } else if (POM_XML_METHOD_MATCHER.matches(method)) {
+                    source.setPath("pom.xml");
+                    language = "xml";
+                } else if (ASSERTIONS_METHOD_MATCHER.matches(method)) {
+                    language = method.getSimpleName();
+                } else {
+                    return method;
+                }
+                source.setLanguage(language);
+
+                // arg0 is always `before`. arg1 is optional to be `after`, to adjust if code changed
+                List<Expression> args = method.getArguments();
+                J.Literal before = !args.isEmpty() ? args.get(0).getType() == JavaType.Primitive.String ? (J.Literal) args.get(0) : null : null;
+                J.Literal after = args.size() > 1 ? args.get(1).getType() == JavaType.Primitive.String ? (J.Literal) args.get(1) : null : null;
+                if (before != null && before.getValue() != null) {
+                    source.setBefore((String) before.getValue());
+                }
+                if (after != null) {
+                    source.setAfter((String) after.getValue());
+                }
+                Expression sourceSpec = args.get(args.size() - 1);
+                if (args.size() > 1 && TypeUtils.isAssignableTo("java.util.function.Consumer", sourceSpec.getType())) {
+                    sourcePathFinder.visit(sourceSpec, source);
+                }
+                if (StringUtils.isNotEmpty(source.getBefore()) || StringUtils.isNotEmpty(source.getAfter())) {
+                    sources.add(source);
+                }
+                return method;
+            }
+        };
+
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            // Trees are immutable, so rescanning the same instance in a later cycle yields the same examples
+            Path sourcePath = cu.getSourcePath();
+            ExtractedExamples previous = acc.extractedExamples.get(sourcePath);
+            if (previous != null && previous.source.get() == cu) {
+                return cu;
+            }
+            // Only the sources of the first cycle are as parsed, and so can be looked up in the examples cache
+            ExamplesCache cache = acc.cache;
+            String fingerprint = cache != null && ctx.getCycle() <= 1 ? fingerprint(cu) : null;
+            ExtractedExamples extracted = new ExtractedExamples(new WeakReference<>(cu), fingerprint,
+                    acc.targetPaths.resolve(sourcePath));
+            List<TargetedExample> cached = cache == null || fingerprint == null ? null :
+                    cache.read(sourcePath, fingerprint, extracted.targetPath);
+            J.CompilationUnit c = cu;
+            if (cached != null) {
+                extracted.examples.addAll(cached);
+            } else {
+                // Collected by the visiting thread only and published once the whole source has been visited
+                getCursor().putMessage(EXTRACTED_KEY, extracted);
+                c = super.visitCompilationUnit(cu, ctx);
+            }
+            acc.retain(extracted.examples);
+            acc.extractedExamples.put(sourcePath, extracted);
+            return c;
+        }
+
         @Override
         public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
             if (DEFAULTS_METHOD_MATCHER.matches(method.getMethodType())) {
@@ -174,7 +1074,7 @@ public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumula
                 return method;
             }
 
-            Optional<Annotated> annotated = new Annotated.Matcher(DOCUMENT_EXAMPLE_ANNOTATION_MATCHER).lower(getCursor()).findAny();
+            Optional<Annotated> annotated = documentExampleMatcher.lower(getCursor()).findAny();
             if (annotated.isPresent()) {
                 String exampleDescription = annotated.get().getDefaultAttribute("value").map(Literal::getString)
                         .orElseGet(() -> String.format("`%s#%s`",
@@ -220,15 +1120,10 @@ public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumula
                 example.setDescription(exampleDescription);
                 example.setParameters(recipe.parameters);
 
-                String testSourcePath = getCursor().firstEnclosingOrThrow(J.CompilationUnit.class).getSourcePath().toString();
-                String root = testSourcePath.substring(0, testSourcePath.indexOf("src/"));
-                if (root.endsWith("rewrite-java-test/")) {
-                    root = root.substring(0, root.length() - "rewrite-java-test/".length()) + "rewrite-java/";
+                ExtractedExamples extracted = getCursor().getNearestMessage(EXTRACTED_KEY);
+                if (extracted != null) {
+                    extracted.examples.add(new TargetedExample(extracted.targetPath, recipe.name, example));
                 }
-                Path targetPath = Paths.get(root).resolve("src/main/resources/META-INF/rewrite/examples.yml");
-                acc.projectRecipeExamples
-                        .computeIfAbsent(targetPath, key -> new TreeMap<>())
-                        .computeIfAbsent(recipe.name, key -> new ArrayList<>()).add(example);
             }
 
             return method;
@@ -236,56 +1131,83 @@ public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumula
 
 
         private @Nullable RecipeNameAndParameters findRecipe(J tree) {
-            return new JavaIsoVisitor<AtomicReference<@Nullable RecipeNameAndParameters>>() {
-                @Override
-                public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, AtomicReference<@Nullable RecipeNameAndParameters> recipe) {
-                    if (RECIPE_METHOD_MATCHER.matches(method)) {
-                        new JavaIsoVisitor<AtomicReference<@Nullable RecipeNameAndParameters>>() {
-                            @Override
-                            public J.NewClass visitNewClass(J.NewClass newClass, AtomicReference<@Nullable RecipeNameAndParameters> recipe) {
-                                JavaType type = newClass.getClazz() != null ? newClass.getClazz().getType() : null;
-                                if (type == null) {
-                                    type = newClass.getType();
-                                }
-
-                                if (TypeUtils.isAssignableTo("org.openrewrite.Recipe", type) && type instanceof JavaType.Class) {
-                                    JavaType.Class tc = (JavaType.Class) type;
-                                    RecipeNameAndParameters recipeNameAndParameters = new RecipeNameAndParameters();
-                                    recipeNameAndParameters.name = tc.getFullyQualifiedName();
-                                    recipeNameAndParameters.parameters = extractParameters(newClass.getArguments());
-                                    recipe.set(recipeNameAndParameters);
-                                }
-                                return newClass;
-                            }
+            RecipeSpec spec = recipeSpecFinder.reduce(tree, new RecipeSpec());
+            return spec.recipeCall ? spec.recipe : null;
+        }
 
-                            @Override
-                            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method,
-                                                                            AtomicReference<@Nullable RecipeNameAndParameters> recipe) {
-                                if (ACTIVE_RECIPES_METHOD_MATCHER.matches(method)) {
-                                    Expression arg = method.getArguments().get(method.getArguments().size() - 1);
-                                    if (arg instanceof J.Literal && ((J.Literal) arg).getValue() != null) {
-                                        RecipeNameAndParameters recipeNameAndParameters = new RecipeNameAndParameters();
-                                        recipeNameAndParameters.name = ((J.Literal) arg).getValue().toString();
-                                        recipe.set(recipeNameAndParameters);
-                                    }
-                                    return method;
-                                }
-                                if (RECIPE_FROM_RESOURCES_METHOD_MATCHER.matches(method)) {
-                                    Expression arg = method.getArguments().get(method.getArguments().size() - 1);
-                                    if (arg instanceof J.Literal && ((J.Literal) arg).getValue() != null) {
-                                        RecipeNameAndParameters recipeNameAndParameters = new RecipeNameAndParameters();
-                                        recipeNameAndParameters.name = ((J.Literal) arg).getValue().toString();
-                                        recipe.set(recipeNameAndParameters);
-                                    }
-                                    return method;
-                                }
-                                return super.visitMethodInvocation(method, recipe);
-                            }
-                        }.visit(tree, recipe);
+        private static class RecipeSpec {
+            /**
+             * Whether the spec calls any of the `RecipeSpec#recipe*` methods at all.
+             */
+            boolean recipeCall;
+
+            /**
+             * Recipes are not looked up inside constructor arguments or recipe names passed by string.
+             */
+            boolean recording = true;
+
+            @Nullable
+            RecipeNameAndParameters recipe;
+        }
+
+        /**
+         * Resolves the recipe of a `defaults` method or `rewriteRun` spec in a single pass over it, where the last
+         * recipe constructed or activated wins.
+         */
+        private class RecipeSpecFinder extends JavaIsoVisitor<RecipeSpec> {
+            @Override
+            public J.NewClass visitNewClass(J.NewClass newClass, RecipeSpec spec) {
+                if (spec.recording) {
+                    JavaType type = newClass.getClazz() != null ? newClass.getClazz().getType() : null;
+                    if (type == null) {
+                        type = newClass.getType();
+                    }
+
+                    if (TypeUtils.isAssignableTo("org.openrewrite.Recipe", type) && type instanceof JavaType.Class) {
+                        JavaType.Class tc = (JavaType.Class) type;
+                        RecipeNameAndParameters recipeNameAndParameters = new RecipeNameAndParameters();
+                        recipeNameAndParameters.name = tc.getFullyQualifiedName();
+                        recipeNameAndParameters.parameters = extractParameters(newClass.getArguments());
+                        spec.recipe = recipeNameAndParameters;
+                    }
+                }
+                return withoutRecording(() -> super.visitNewClass(newClass, spec), spec);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, RecipeSpec spec) {
+                if (RECIPE_METHOD_MATCHER.matches(method)) {
+                    spec.recipeCall = true;
+                }
+                if (ACTIVE_RECIPES_METHOD_MATCHER.matches(method) || RECIPE_FROM_RESOURCES_METHOD_MATCHER.matches(method)) {
+                    Expression arg = method.getArguments().get(method.getArguments().size() - 1);
+                    if (spec.recording && arg instanceof J.Literal && ((J.Literal) arg).getValue() != null) {
+                        RecipeNameAndParameters recipeNameAndParameters = new RecipeNameAndParameters();
+                        recipeNameAndParameters.name = ((J.Literal) arg).getValue().toString();
+                        spec.recipe = recipeNameAndParameters;
                     }
-                    return super.visitMethodInvocation(method, recipe);
+                    return withoutRecording(() -> super.visitMethodInvocation(method, spec), spec);
+                }
+                return super.visitMethodInvocation(method, spec);
+            }
+
+            private <T> T withoutRecording(Supplier<T> visit, RecipeSpec spec) {
+                boolean recording = spec.recording;
+                spec.recording = false;
+                try {
+                    return visit.get();
+                } finally {
+                    spec.recording = recording;
                 }
-            }.reduce(tree, new AtomicReference<@Nullable RecipeNameAndParameters>()).get();
+            }
+        }
+
+        private static String fingerprint(SourceFile sourceFile) {
+            // The checksum of the parsed file, when the parser recorded one, saves printing the whole source
+            Checksum checksum = sourceFile.getChecksum();
+            return checksum != null ?
+                    checksum.getAlgorithm() + ':' + Sha256.hex(checksum.getValue()) :
+                    Sha256.hash(sourceFile.printAll());
         }
 
         private List<String> extractParameters(List<Expression> args) {
@@ -313,127 +1235,135 @@ public class ExamplesExtractor extends ScanningRecipe<ExamplesExtractor.Accumula
         }
 
         private List<RecipeExample.Source> extractRecipeExampleSources(List<Expression> sourceSpecArg) {
-            JavaIsoVisitor<Set<RecipeExample.Source>> visitor = new JavaIsoVisitor<Set<RecipeExample.Source>>() {
-                @Override
-                public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Set<RecipeExample.Source> sources) {
-                    method = super.visitMethodInvocation(method, sources);
-
-                    RecipeExample.Source source = new RecipeExample.Source("", null, null, "");
-                    String language;
-                    if (BUILD_GRADLE_METHOD_MATCHER.matches(method)) {
-                        source.setPath("build.gradle");
-                        language = "groovy";
-                    } else if (POM_XML_METHOD_MATCHER.matches(method)) {
-                        source.setPath("pom.xml");
-                        language = "xml";
-                    } else if (ASSERTIONS_METHOD_MATCHER.matches(method)) {
-                        language = method.getSimpleName();
-                    } else {
-                        return method;
-                    }
-                    source.setLanguage(language);
-
-                    // arg0 is always `before`. arg1 is optional to be `after`, to adjust if code changed
-                    List<Expression> args = method.getArguments();
-                    J.Literal before = !args.isEmpty() ? args.get(0).getType() == JavaType.Primitive.String ? (J.Literal) args.get(0) : null : null;
-                    J.Literal after = args.size() > 1 ? args.get(1).getType() == JavaType.Primitive.String ? (J.Literal) args.get(1) : null : null;
-                    if (before != null && before.getValue() != null) {
-                        source.setBefore((String) before.getValue());
-                    }
-                    if (after != null) {
-                        source.setAfter((String) after.getValue());
-                    }
-                    Expression sourceSpec = args.get(args.size() - 1);
-                    if (args.size() > 1 && TypeUtils.isAssignableTo("java.util.function.Consumer", sourceSpec.getType())) {
-                        new JavaIsoVisitor<RecipeExample.Source>() {
-                            @Override
-                            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, RecipeExample.Source source) {
-                                if (PATH_METHOD_MATCHER.matches(method) && method.getArguments().get(0) instanceof J.Literal) {
-                                    source.setPath((String) ((J.Literal) method.getArguments().get(0)).getValue());
-                                }
-                                return method;
-                            }
-                        }.visit(sourceSpec, source);
-                    }
-                    if (StringUtils.isNotEmpty(source.getBefore()) || StringUtils.isNotEmpty(source.getAfter())) {
-                        sources.add(source);
-                    }
-                    return method;
-                }
-            };
-            Set<RecipeExample.Source> sortedSet = visitor.reduce(sourceSpecArg, new TreeSet<>(
+            Set<RecipeExample.Source> sortedSet = sourcesFinder.reduce(sourceSpecArg, new TreeSet<>(
                     comparing(RecipeExample.Source::getLanguage).thenComparing(RecipeExample.Source::getBefore)));
             return new ArrayList<>(sortedSet);
         }
     }
 
+    /**
+     * Writes the examples as YAML in a single pass, emitting the same events (and so the same text) that
+     * {@code Yaml#dumpAsMap} would produce for the equivalent nested maps, without building those maps first.
+     */
     static class YamlPrinter {
 
-        private final Yaml yaml = new Yaml();
+        private static final DumperOptions DUMPER_OPTIONS = new DumperOptions();
+        private static final Resolver RESOLVER = new Resolver();
+        private static final Pattern MULTILINE_PATTERN = Pattern.compile("\n|\u0085|\u2028|\u2029");
 
         String print(@Nullable String licenseHeader, Map<String, List<RecipeExample>> recipeExamples) {
             StringWriter stringWriter = new StringWriter();
+            stringWriter.append(printLicenseHeader(licenseHeader));
+            for (Map.Entry<String, List<RecipeExample>> recipeEntry : recipeExamples.entrySet()) {
+                print(stringWriter, recipeEntry.getKey(), recipeEntry.getValue());
+            }
+            return stringWriter.toString();
+        }
+
+        String printLicenseHeader(@Nullable String licenseHeader) {
             if (StringUtils.isNotEmpty(licenseHeader)) {
                 boolean singleLine = !licenseHeader.trim().contains("\n");
-                stringWriter
-                        .append(singleLine ? "#\n# " : "# ")
-                        .append(licenseHeader.trim()
+                return (singleLine ? "#\n# " : "# ") +
+                        licenseHeader.trim()
                                 .replace("${year}", "2025") // Hardcoded to avoid suggestions in 2026+
                                 .replace("\n", "\n# ")
-                                .trim())
-                        .append(singleLine ? "\n#\n\n" : "\n");
-            }
-            for (Map.Entry<String, List<RecipeExample>> recipeEntry : recipeExamples.entrySet()) {
-                Map<String, Object> yamlDoc = print(recipeEntry.getKey(), recipeEntry.getValue());
-                stringWriter.append("---\n").append(yaml.dumpAsMap(yamlDoc));
+                                .trim() +
+                        (singleLine ? "\n#\n\n" : "\n");
             }
+            return "";
+        }
+
+        /**
+         * @return A single `---` separated document with the examples of one recipe.
+         */
+        String print(String recipeName, List<RecipeExample> examples) {
+            StringWriter stringWriter = new StringWriter();
+            print(stringWriter, recipeName, examples);
             return stringWriter.toString();
         }
 
-        private Map<String, Object> print(String recipeName, List<RecipeExample> examples) {
-            Map<String, Object> yamlDoc = new LinkedHashMap<>();
-            yamlDoc.put("type", "specs.openrewrite.org/v1beta/example");
-            yamlDoc.put("recipeName", recipeName);
-            List<Map<String, Object>> examplesData = new ArrayList<>();
-            yamlDoc.put("examples", examplesData);
+        private void print(StringWriter stringWriter, String recipeName, List<RecipeExample> examples) {
+            stringWriter.append("---\n");
+            try {
+                print(new Emitter(stringWriter, DUMPER_OPTIONS), recipeName, examples);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void print(Emitter emitter, String recipeName, List<RecipeExample> examples) throws IOException {
+            emitter.emit(new StreamStartEvent(null, null));
+            emitter.emit(new DocumentStartEvent(null, null, false, null, emptyMap()));
+            emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, FlowStyle.BLOCK));
+            scalar(emitter, "type");
+            scalar(emitter, "specs.openrewrite.org/v1beta/example");
+            scalar(emitter, "recipeName");
+            scalar(emitter, recipeName);
 
-            examples.sort(comparing(RecipeExample::getDescription));
+            scalar(emitter, "examples");
+            emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, FlowStyle.BLOCK));
             for (RecipeExample example : examples) {
-                Map<String, Object> exampleData = new LinkedHashMap<>();
-                exampleData.put("description", example.getDescription());
+                emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, FlowStyle.BLOCK));
+                scalar(emitter, "description");
+                scalar(emitter, example.getDescription());
 
                 List<String> params = example.getParameters();
                 if (!params.isEmpty()) {
-                    exampleData.put("parameters", params);
+                    scalar(emitter, "parameters");
+                    emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, FlowStyle.BLOCK));
+                    for (String param : params) {
+                        scalar(emitter, param);
+                    }
+                    emitter.emit(new SequenceEndEvent(null, null));
                 }
 
-                List<Map<String, String>> sourcesData = new ArrayList<>();
+                scalar(emitter, "sources");
+                emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, FlowStyle.BLOCK));
                 for (RecipeExample.Source source : example.getSources()) {
-
-                    Map<String, String> sourceData = new LinkedHashMap<>();
+                    emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, FlowStyle.BLOCK));
                     if (StringUtils.isNotEmpty(source.getBefore())) {
-                        sourceData.put("before", source.getBefore());
+                        scalar(emitter, "before");
+                        scalar(emitter, source.getBefore());
                     }
 
                     if (StringUtils.isNotEmpty(source.getAfter())) {
-                        sourceData.put("after", source.getAfter());
+                        scalar(emitter, "after");
+                        scalar(emitter, source.getAfter());
                     }
 
                     if (StringUtils.isNotEmpty(source.getPath())) {
-                        sourceData.put("path", PathUtils.separatorsToUnix(source.getPath()));
+                        scalar(emitter, "path");
+                        scalar(emitter, PathUtils.separatorsToUnix(source.getPath()));
                     }
 
                     if (StringUtils.isNotEmpty(source.getLanguage())) {
-                        sourceData.put("language", source.getLanguage());
+                        scalar(emitter, "language");
+                        scalar(emitter, source.getLanguage());
                     }
-
-                    sourcesData.add(sourceData);
+                    emitter.emit(new MappingEndEvent(null, null));
                 }
+                emitter.emit(new SequenceEndEvent(null, null));
+                emitter.emit(new MappingEndEvent(null, null));
+            }
+            emitter.emit(new SequenceEndEvent(null, null));
+
+            emitter.emit(new MappingEndEvent(null, null));
+            emitter.emit(new DocumentEndEvent(null, null, false));
+            emitter.emit(new StreamEndEvent(null, null));
+        }
 
-                exampleData.put("sources", sourcesData);
-                examplesData.add(exampleData);
+        private static void scalar(Emitter emitter, @Nullable String value) throws IOException {
+            if (value == null) {
+                emitter.emit(new ScalarEvent(null, Tag.NULL.getValue(), new ImplicitTuple(true, false), "null",
+                        null, null, ScalarStyle.PLAIN));
+                return;
             }
-            return yamlDoc;
+            // Same tag resolution and style selection as the default representer and serializer
+            ImplicitTuple implicit = new ImplicitTuple(
+                    Tag.STR.equals(RESOLVER.resolve(NodeId.scalar, value, true)),
+                    Tag.STR.equals(RESOLVER.resolve(NodeId.scalar, value, false)));
+            ScalarStyle style = MULTILINE_PATTERN.matcher(value).find() ? ScalarStyle.LITERAL : ScalarStyle.PLAIN;
+            emitter.emit(new ScalarEvent(null, Tag.STR.getValue(), implicit, value, null, null, style));
         }
     }
 }
@@ -15,20 +15,22 @@
  */
 package org.openrewrite.java.recipes;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.ValueNode;
-import lombok.Getter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
 import org.openrewrite.java.AnnotationMatcher;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
+import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.TypeUtils;
 import org.openrewrite.marker.SearchResult;
 import org.openrewrite.table.RewriteRecipeSource;
@@ -36,22 +38,103 @@ import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.search.FindProperty;
 import org.openrewrite.yaml.tree.Yaml;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 import static java.util.Objects.requireNonNull;
 
+@Value
+@EqualsAndHashCode(callSuper = false)
+@AllArgsConstructor
 public class FindRecipes extends Recipe {
-    RewriteRecipeSource recipeSource = new RewriteRecipeSource(this);
+    private static final String SOURCE_BLOB_HASHES = "org.openrewrite.java.recipes.FindRecipes.sourceBlobHashes";
+    private static final String RECIPE_SOURCE_SHARDS = "org.openrewrite.java.recipes.FindRecipes.recipeSourceShards";
+    private static final String SOURCE_BLOB_SHARDS = "org.openrewrite.java.recipes.FindRecipes.sourceBlobShards";
+    private static final String FINGERPRINT_INDEX = "org.openrewrite.java.recipes.FindRecipes.fingerprintIndex";
+    private static final String FINGERPRINT_REFERENCE_PREFIX = "fingerprint:";
+    private static final String RECIPE = "org.openrewrite.Recipe";
+    private static final String RECIPE_DESCRIPTOR = "org.openrewrite.java.template.RecipeDescriptor";
+    private static final int ROWS_PER_SHARD = 10_000;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
 
-    @Getter
-    final String displayName = "Find OpenRewrite recipes";
+    transient RewriteRecipeSource recipeSource = new RewriteRecipeSource(this);
+    transient RecipeSourceBlobs sourceBlobs = new RecipeSourceBlobs(this);
 
-    @Getter
-    final String description = "This recipe finds all OpenRewrite recipes, primarily to produce a data table that is being used " +
+    @Option(displayName = "Deduplicate sources",
+            description = "Store the content hash of the source code in the recipe source code table, and each distinct " +
+                    "source code only once in the recipe source blobs table. Recipes declared in the same source file " +
+                    "then no longer repeat the whole file.",
+            required = false)
+    @Nullable
+    Boolean deduplicateSources;
+
+    @Option(displayName = "Export directory",
+            description = "Write the rows of the recipe source code and recipe source blobs tables to gzip compressed " +
+                    "JSON Lines shards in this directory while the recipe runs, instead of keeping them in memory. " +
+                    "A shard is only renamed to its final `.jsonl.gz` name once it is complete. The last shard is " +
+                    "completed when the recipe run completes, so if the run is aborted it keeps its `.partial` name, " +
+                    "though it still holds every row written to it.",
+            example = "build/recipe-sources",
+            required = false)
+    @Nullable
+    String exportDirectory;
+
+    @Option(displayName = "Fingerprint index",
+            description = "A local file holding the fingerprints of the normalized source code of all recipes found so " +
+                    "far, kept across runs. The source code of each row is replaced by a `fingerprint:` reference, " +
+                    "and only stored under that reference in the recipe source blobs table by the run that first " +
+                    "found it, so that source code found again, in this or a later run, for instance in a fork or " +
+                    "vendored copy, is not stored twice. The fingerprints found in a run are added to the index once " +
+                    "the run completes.",
+            example = "build/recipe-fingerprints.txt",
+            required = false)
+    @Nullable
+    String fingerprintIndex;
+
+    String displayName = "Find OpenRewrite recipes";
+
+    String description = "This recipe finds all OpenRewrite recipes, primarily to produce a data table that is being used " +
             "to experiment with fine-tuning a large language model to produce more recipes.";
 
+    public FindRecipes() {
+        this(null, null, null);
+    }
+
+    @Override
+    public void onComplete(ExecutionContext ctx) {
+        ShardWriter recipeSourceShards = ctx.pollMessage(RECIPE_SOURCE_SHARDS);
+        if (recipeSourceShards != null) {
+            recipeSourceShards.close();
+        }
+        ShardWriter sourceBlobShards = ctx.pollMessage(SOURCE_BLOB_SHARDS);
+        if (sourceBlobShards != null) {
+            sourceBlobShards.close();
+        }
+        // Only index the fingerprints of this run once the source blobs holding their source code are complete, so
+        // an aborted run does not leave fingerprints that later runs would reference without a blob to resolve them
+        FingerprintIndex index = ctx.pollMessage(FINGERPRINT_INDEX);
+        if (index != null) {
+            index.close();
+        }
+    }
+
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         TreeVisitor<?, ExecutionContext> findImperativeRecipes = findImperativeRecipes();
@@ -61,17 +144,36 @@ public class FindRecipes extends Recipe {
             @Override
             public @Nullable Tree preVisit(@NonNull Tree tree, ExecutionContext ctx) {
                 stopAfterPreVisit();
-                tree = findImperativeRecipes.visit(tree, ctx);
-                tree = findRefasterRecipes.visit(tree, ctx);
-                return findYamlRecipes.visit(tree, ctx);
+                if (tree instanceof JavaSourceFile) {
+                    // Look for both recipe types in a single pass over the types in use
+                    boolean usesRecipe = false;
+                    boolean usesRecipeDescriptor = false;
+                    for (JavaType type : ((JavaSourceFile) tree).getTypesInUse().getTypesInUse()) {
+                        JavaType.FullyQualified fq = TypeUtils.asFullyQualified(type);
+                        if (fq != null) {
+                            usesRecipe |= RECIPE.equals(fq.getFullyQualifiedName());
+                            usesRecipeDescriptor |= RECIPE_DESCRIPTOR.equals(fq.getFullyQualifiedName());
+                        }
+                    }
+                    if (usesRecipe) {
+                        tree = findImperativeRecipes.visit(tree, ctx);
+                    }
+                    if (usesRecipeDescriptor) {
+                        tree = findRefasterRecipes.visit(tree, ctx);
+                    }
+                    return tree;
+                }
+                if (tree instanceof Yaml.Documents) {
+                    return findYamlRecipes.visit(tree, ctx);
+                }
+                return tree;
             }
         };
     }
 
     private TreeVisitor<?, ExecutionContext> findRefasterRecipes() {
-        String recipeDescriptor = "org.openrewrite.java.template.RecipeDescriptor";
-        AnnotationMatcher annotationMatcher = new AnnotationMatcher("@" + recipeDescriptor);
-        return Preconditions.check(new UsesType<>(recipeDescriptor, false), new JavaIsoVisitor<ExecutionContext>() {
+        AnnotationMatcher annotationMatcher = new AnnotationMatcher("@" + RECIPE_DESCRIPTOR);
+        return new JavaIsoVisitor<ExecutionContext>() {
             @Override
             public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
                 J.ClassDeclaration cd = super.visitClassDeclaration(classDecl, ctx);
@@ -97,11 +199,11 @@ public class FindRecipes extends Recipe {
                             }
                         }
                         if (name != null && description != null) {
-                            recipeSource.insertRow(ctx, new RewriteRecipeSource.Row(
+                            insertRow(ctx, new RewriteRecipeSource.Row(
                                     name,
                                     description,
                                     RewriteRecipeSource.RecipeType.Refaster,
-                                    cd.printTrimmed(getCursor()),
+                                    sourceCode(cd.printTrimmed(getCursor()), ctx),
                                     "[]"
                             ));
                             return SearchResult.found(cd);
@@ -110,25 +212,32 @@ public class FindRecipes extends Recipe {
                 }
                 return cd;
             }
-        });
+        };
     }
 
     private TreeVisitor<?, ExecutionContext> findImperativeRecipes() {
         MethodMatcher getDisplayName = new MethodMatcher("org.openrewrite.Recipe getDisplayName()", true);
         MethodMatcher getDescription = new MethodMatcher("org.openrewrite.Recipe getDescription()", true);
         AnnotationMatcher optionAnnotation = new AnnotationMatcher("@org.openrewrite.Option");
-        return Preconditions.check(new UsesType<>("org.openrewrite.Recipe", false), new JavaIsoVisitor<ExecutionContext>() {
-            final List<J.VariableDeclarations> options = new ArrayList<>();
+        return new JavaIsoVisitor<ExecutionContext>() {
+            // Reused for serializing the options of every recipe this visitor finds
+            final StringWriter optionsBuffer = new StringWriter();
 
             @Override
             public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                List<J.VariableDeclarations> options = new ArrayList<>();
+                getCursor().putMessage("options", options);
                 J.ClassDeclaration cd = super.visitClassDeclaration(classDecl, ctx);
-                if (TypeUtils.isAssignableTo("org.openrewrite.Recipe", classDecl.getType())) {
-                    recipeSource.insertRow(ctx, new RewriteRecipeSource.Row(
+                if (TypeUtils.isAssignableTo(RECIPE, classDecl.getType())) {
+                    // Print the compilation unit once, however many recipes it declares
+                    Cursor cuCursor = getCursor().dropParentUntil(J.CompilationUnit.class::isInstance);
+                    String sourceCode = cuCursor.computeMessageIfAbsent("sourceCode",
+                            k -> sourceCode(cuCursor.<J.CompilationUnit>getValue().printAllTrimmed(), ctx));
+                    insertRow(ctx, new RewriteRecipeSource.Row(
                             getCursor().getMessage("displayName"),
                             getCursor().getMessage("description"),
                             RewriteRecipeSource.RecipeType.Java,
-                            getCursor().firstEnclosingOrThrow(J.CompilationUnit.class).printAllTrimmed(),
+                            sourceCode,
                             convertOptionsToJSON(options)
                     ));
                     return classDecl.withName(SearchResult.found(classDecl.getName()));
@@ -136,10 +245,19 @@ public class FindRecipes extends Recipe {
                 return cd;
             }
 
+            @Override
+            public J.NewClass visitNewClass(J.NewClass newClass, ExecutionContext ctx) {
+                if (newClass.getBody() != null) {
+                    // Options of an anonymous class are not options of the recipe it is declared in
+                    getCursor().putMessage("options", new ArrayList<J.VariableDeclarations>());
+                }
+                return super.visitNewClass(newClass, ctx);
+            }
+
             @Override
             public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations multiVariable, ExecutionContext ctx) {
                 if (multiVariable.getLeadingAnnotations().stream().anyMatch(optionAnnotation::matches)) {
-                    options.add(multiVariable);
+                    getCursor().<List<J.VariableDeclarations>>getNearestMessage("options", new ArrayList<>()).add(multiVariable);
                 }
                 return super.visitVariableDeclarations(multiVariable, ctx);
             }
@@ -163,16 +281,23 @@ public class FindRecipes extends Recipe {
             }
 
             private String convertOptionsToJSON(List<J.VariableDeclarations> options) {
-                ArrayNode optionsArray = JsonNodeFactory.instance.arrayNode();
-                for (J.VariableDeclarations option : options) {
-                    ObjectNode optionNode = optionsArray.addObject();
-                    optionNode.put("name", option.getVariables().get(0).getSimpleName());
-                    mapOptionAnnotation(option.getLeadingAnnotations(), optionNode);
+                optionsBuffer.getBuffer().setLength(0);
+                try (JsonGenerator generator = JSON_FACTORY.createGenerator(optionsBuffer)) {
+                    generator.writeStartArray();
+                    for (J.VariableDeclarations option : options) {
+                        generator.writeStartObject();
+                        generator.writeStringField("name", option.getVariables().get(0).getSimpleName());
+                        writeOptionAnnotation(option.getLeadingAnnotations(), generator);
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-                return optionsArray.toString();
+                return optionsBuffer.toString();
             }
 
-            private void mapOptionAnnotation(List<J.Annotation> leadingAnnotations, ObjectNode optionNode) {
+            private void writeOptionAnnotation(List<J.Annotation> leadingAnnotations, JsonGenerator generator) throws IOException {
                 for (J.Annotation annotation : leadingAnnotations) {
                     if (optionAnnotation.matches(annotation) && annotation.getArguments() != null) {
                         for (Expression argument : annotation.getArguments()) {
@@ -181,16 +306,18 @@ public class FindRecipes extends Recipe {
                                 if (assignment.getVariable() instanceof J.Identifier) {
                                     J.Identifier identifier = (J.Identifier) assignment.getVariable();
                                     if (assignment.getAssignment() instanceof J.Literal) {
-                                        optionNode.set(identifier.getSimpleName(), mapValue(((J.Literal) assignment.getAssignment()).getValue()));
+                                        generator.writeFieldName(identifier.getSimpleName());
+                                        writeValue(((J.Literal) assignment.getAssignment()).getValue(), generator);
                                     } else if (assignment.getAssignment() instanceof J.NewArray) {
                                         J.NewArray newArray = (J.NewArray) assignment.getAssignment();
                                         if (newArray.getInitializer() != null) {
-                                            ArrayNode valuesArray = optionNode.putArray(identifier.getSimpleName());
+                                            generator.writeArrayFieldStart(identifier.getSimpleName());
                                             for (Expression expression : newArray.getInitializer()) {
                                                 if (expression instanceof J.Literal) {
-                                                    valuesArray.add(mapValue(((J.Literal) expression).getValue()));
+                                                    writeValue(((J.Literal) expression).getValue(), generator);
                                                 }
                                             }
+                                            generator.writeEndArray();
                                         }
                                     }
                                 }
@@ -201,22 +328,20 @@ public class FindRecipes extends Recipe {
                 }
             }
 
-            private ValueNode mapValue(@Nullable Object value) {
+            private void writeValue(@Nullable Object value, JsonGenerator generator) throws IOException {
                 if (value instanceof String) {
-                    return JsonNodeFactory.instance.textNode((String) value);
-                }
-                if (value instanceof Boolean) {
-                    return JsonNodeFactory.instance.booleanNode((Boolean) value);
-                }
-                if (value instanceof Integer) {
-                    return JsonNodeFactory.instance.numberNode((Integer) value);
-                }
-                if (value == null) {
-                    return JsonNodeFactory.instance.nullNode();
+                    generator.writeString((String) value);
+                } else if (value instanceof Boolean) {
+                    generator.writeBoolean((Boolean) value);
+                } else if (value instanceof Integer) {
+                    generator.writeNumber((Integer) value);
+                } else if (value == null) {
+                    generator.writeNull();
+                } else {
+                    throw new IllegalArgumentException(String.valueOf(value));
                 }
-                throw new IllegalArgumentException(String.valueOf(value));
             }
-        });
+        };
     }
 
     private TreeVisitor<?, ExecutionContext> findYamlRecipes() {
@@ -231,11 +356,11 @@ public class FindRecipes extends Recipe {
                             String displayName = extractValue(doc, "displayName");
                             String description = extractValue(doc, "description");
                             if (displayName != null && description != null) {
-                                recipeSource.insertRow(ctx, new RewriteRecipeSource.Row(
+                                insertRow(ctx, new RewriteRecipeSource.Row(
                                         displayName,
                                         description,
                                         RewriteRecipeSource.RecipeType.Yaml,
-                                        doc.withPrefix("").printTrimmed(getCursor()),
+                                        sourceCode(doc.withPrefix("").printTrimmed(getCursor()), ctx),
                                         "[]"
                                 ));
                                 return SearchResult.found(doc);
@@ -257,4 +382,191 @@ public class FindRecipes extends Recipe {
                 }
         );
     }
+
+    private void insertRow(ExecutionContext ctx, RewriteRecipeSource.Row row) {
+        if (exportDirectory == null) {
+            recipeSource.insertRow(ctx, row);
+        } else {
+            export(ctx, RECIPE_SOURCE_SHARDS, "recipe-sources", row);
+        }
+    }
+
+    private void export(ExecutionContext ctx, String key, String prefix, Object row) {
+        if (ctx.getCycle() > 1) {
+            // Like the data tables, only record the rows found in the first cycle
+            return;
+        }
+        ShardWriter shards = ctx.computeMessageIfAbsent(key,
+                k -> new ShardWriter(Paths.get(requireNonNull(exportDirectory)), prefix));
+        shards.write(row);
+    }
+
+    /**
+     * @return With a fingerprint index, the fingerprint reference of this source code, under which the run that
+     * first found it stored it in the source blobs table. Otherwise the source code itself, or when deduplicating,
+     * its content hash after storing it in the source blobs table if no earlier row did. All recipes of a
+     * compilation unit share the source code looked up for its first recipe.
+     */
+    private String sourceCode(String sourceCode, ExecutionContext ctx) {
+        if (fingerprintIndex != null) {
+            FingerprintIndex index = ctx.computeMessageIfAbsent(FINGERPRINT_INDEX,
+                    k -> new FingerprintIndex(Paths.get(fingerprintIndex)));
+            String reference = FINGERPRINT_REFERENCE_PREFIX + Sha256.hash(normalize(sourceCode));
+            if (index.add(reference)) {
+                storeBlob(reference, sourceCode, ctx);
+            }
+            return reference;
+        }
+        if (!Boolean.TRUE.equals(deduplicateSources)) {
+            return sourceCode;
+        }
+        String contentHash = Sha256.hash(sourceCode);
+        Set<String> storedHashes = ctx.computeMessageIfAbsent(SOURCE_BLOB_HASHES, k -> ConcurrentHashMap.newKeySet());
+        if (storedHashes.add(contentHash)) {
+            storeBlob(contentHash, sourceCode, ctx);
+        }
+        return contentHash;
+    }
+
+    private void storeBlob(String key, String sourceCode, ExecutionContext ctx) {
+        RecipeSourceBlobs.Row row = new RecipeSourceBlobs.Row(key, sourceCode);
+        if (exportDirectory == null) {
+            sourceBlobs.insertRow(ctx, row);
+        } else {
+            export(ctx, SOURCE_BLOB_SHARDS, "recipe-source-blobs", row);
+        }
+    }
+
+    /**
+     * Drops the package and import declarations, which relocation in shaded or vendored copies changes,
+     * together with blank lines and differences in whitespace.
+     */
+    private static String normalize(String sourceCode) {
+        StringBuilder normalized = new StringBuilder(sourceCode.length());
+        for (String line : sourceCode.split("\\R")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("package ") && !trimmed.startsWith("import ")) {
+                normalized.append(WHITESPACE.matcher(trimmed).replaceAll(" ")).append('\n');
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Writes rows as JSON Lines to numbered, gzip compressed shards of at most {@link #ROWS_PER_SHARD} rows. A shard
+     * is written under a `.partial` name and renamed once complete, so readers can pick up finished shards early.
+     * Every row is flushed through to the file, so a shard left `.partial` by a run that did not complete still
+     * holds all rows written to it.
+     */
+    private static class ShardWriter {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        private final Path directory;
+        private final String prefix;
+        private int shard;
+        private int rows;
+
+        private @Nullable Path partial;
+        private @Nullable Writer writer;
+
+        ShardWriter(Path directory, String prefix) {
+            this.directory = directory;
+            this.prefix = prefix;
+        }
+
+        synchronized void write(Object row) {
+            try {
+                if (writer == null) {
+                    Files.createDirectories(directory);
+                    partial = directory.resolve(String.format("%s-%05d.jsonl.gz.partial", prefix, shard));
+                    writer = new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(
+                            Files.newOutputStream(partial)), true), StandardCharsets.UTF_8);
+                }
+                try {
+                    writer.write(MAPPER.writeValueAsString(row));
+                    writer.write('\n');
+                    writer.flush();
+                } finally {
+                    if (++rows == ROWS_PER_SHARD) {
+                        close();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        synchronized void close() {
+            if (writer == null || partial == null) {
+                return;
+            }
+            Writer finished = writer;
+            Path finishedPartial = partial;
+            // The next row starts a new shard, even when finishing this one fails
+            writer = null;
+            partial = null;
+            rows = 0;
+            Path complete = directory.resolve(String.format("%s-%05d.jsonl.gz", prefix, shard++));
+            try {
+                finished.close();
+                Files.move(finishedPartial, complete, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * The fingerprint references read from the index file, to which the references found in this run are appended
+     * once the source blobs holding their source code have been written.
+     */
+    private static class FingerprintIndex {
+        private final Path file;
+        private final Set<String> fingerprints = ConcurrentHashMap.newKeySet();
+        private final Set<String> found = ConcurrentHashMap.newKeySet();
+
+        FingerprintIndex(Path file) {
+            this.file = file;
+            try {
+                if (Files.exists(file)) {
+                    fingerprints.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return Whether the fingerprint reference is new, in which case it is appended to the index file on
+         * {@link #close()}.
+         */
+        boolean add(String reference) {
+            if (!fingerprints.add(reference)) {
+                return false;
+            }
+            found.add(reference);
+            return true;
+        }
+
+        void close() {
+            if (found.isEmpty()) {
+                return;
+            }
+            try {
+                if (file.toAbsolutePath().getParent() != null) {
+                    Files.createDirectories(file.toAbsolutePath().getParent());
+                }
+                try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (String fingerprint : found) {
+                        writer.write(fingerprint);
+                        writer.write('\n');
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            found.clear();
+        }
+    }
 }
@@ -15,7 +15,8 @@
  */
 package org.openrewrite.java.recipes;
 
-import lombok.Getter;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
@@ -23,8 +24,11 @@ import org.openrewrite.internal.ListUtils;
 import org.openrewrite.internal.StringUtils;
 import org.openrewrite.java.AnnotationMatcher;
 import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaPrinter;
+import org.openrewrite.java.JavaVisitor;
 import org.openrewrite.java.MethodMatcher;
 import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.*;
 import org.openrewrite.text.PlainText;
 import org.openrewrite.yaml.YamlIsoVisitor;
@@ -36,7 +40,10 @@ import java.nio.file.Paths;
 import java.util.*;
 
 import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
 
+@Value
+@EqualsAndHashCode(callSuper = false)
 public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDeprecatedMethodRecipes.Accumulator> {
 
     transient DeprecatedMethodDelegations dataTable = new DeprecatedMethodDelegations(this);
@@ -44,12 +51,20 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
     private static final AnnotationMatcher DEPRECATED_MATCHER = new AnnotationMatcher("@java.lang.Deprecated");
     private static final AnnotationMatcher TO_BE_REMOVED_MATCHER = new AnnotationMatcher("@org.openrewrite.internal.ToBeRemoved");
     private static final Path OUTPUT_RELATIVE = Paths.get("src/main/resources/META-INF/rewrite/inline-deprecated-methods.yml");
+    private static final String PRUNED_ALL_KEY = "prunedAll";
 
-    @Getter
-    final String displayName = "Generate `InlineMethodCalls` recipes for deprecated delegating methods";
+    @Option(displayName = "Prune stale entries",
+            description = "Remove `InlineMethodCalls` entries from an existing recipe file when their method pattern " +
+                    "no longer matches a method declared in the project, for instance because the deprecated method " +
+                    "was deleted. Entries with wildcard method patterns are always kept. A recipe left without " +
+                    "entries is removed, and so is a file left without recipes.",
+            required = false)
+    @Nullable
+    Boolean pruneStaleEntries;
 
-    @Getter
-    final String description = "Finds `@Deprecated` method declarations whose body is a single delegation call " +
+    String displayName = "Generate `InlineMethodCalls` recipes for deprecated delegating methods";
+
+    String description = "Finds `@Deprecated` method declarations whose body is a single delegation call " +
             "to another method in the same class, and generates a declarative YAML recipe file " +
             "containing `InlineMethodCalls` entries for each.";
 
@@ -60,6 +75,12 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
 
     @Override
     public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        // Only sources that refer to either annotation can declare a deprecated delegating method
+        TreeVisitor<?, ExecutionContext> deprecatedMethodScanner = Preconditions.check(
+                Preconditions.or(
+                        new UsesType<>("java.lang.Deprecated", false),
+                        new UsesType<>("org.openrewrite.internal.ToBeRemoved", false)),
+                new DelegationScanner(acc));
         return new TreeVisitor<Tree, ExecutionContext>() {
             @Override
             public Tree preVisit(Tree tree, ExecutionContext ctx) {
@@ -75,75 +96,21 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
                     acc.licenseHeader = ((PlainText) tree).getText();
                 }
                 if (tree instanceof JavaSourceFile) {
-                    SourceFile sourceFile = (SourceFile) tree;
-                    JavaProject javaProject = sourceFile.getMarkers()
-                            .findFirst(JavaProject.class).orElse(null);
-                    Path projectBase = projectBasePath(sourceFile.getSourcePath());
-
-                    new JavaIsoVisitor<ExecutionContext>() {
-                        @Override
-                        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
-                            J.MethodDeclaration md = super.visitMethodDeclaration(method, ctx);
-                            if (md.getMethodType() == null || md.getBody() == null) {
-                                return md;
-                            }
-
-                            // Check for @Deprecated or @ToBeRemoved annotation
-                            if (md.getLeadingAnnotations().stream().noneMatch(
-                                    ann -> DEPRECATED_MATCHER.matches(ann) || TO_BE_REMOVED_MATCHER.matches(ann))) {
-                                return md;
-                            }
-
-                            // Check body has exactly one statement that is a method call
-                            // (either direct or as return expression)
-                            List<Statement> statements = md.getBody().getStatements();
-                            if (statements.size() != 1) {
-                                return md;
-                            }
-
-                            MethodCall methodCall;
-                            Statement stmt = statements.get(0);
-                            if (stmt instanceof MethodCall) {
-                                methodCall = (MethodCall) stmt;
-                            } else if (stmt instanceof J.Return &&
-                                    ((J.Return) stmt).getExpression() instanceof MethodCall) {
-                                methodCall = (MethodCall) ((J.Return) stmt).getExpression();
-                            } else {
-                                return md;
-                            }
-                            JavaType.Method invokedMethod = methodCall.getMethodType();
-                            if (invokedMethod == null) {
-                                return md;
-                            }
-
-                            // Check the invoked method is in the same declaring type
-                            JavaType.FullyQualified declaringType = md.getMethodType().getDeclaringType();
-                            JavaType.FullyQualified invokedDeclaringType = invokedMethod.getDeclaringType();
-                            if (!declaringType.getFullyQualifiedName().equals(invokedDeclaringType.getFullyQualifiedName())) {
-                                return md;
-                            }
-
-                            J commentFree = new JavaIsoVisitor<ExecutionContext>() {
-                                @Override
-                                public Space visitSpace(Space space, Space.Location loc, ExecutionContext ctx) {
-                                    return space.withComments(emptyList());
-                                }
-                            }.visitNonNull(methodCall, ctx);
-                            String replacement = commentFree.printTrimmed(getCursor())
-                                    .replaceAll("\\n\\s+", " ");
-                            String methodPattern = MethodMatcher.methodPattern(md.getMethodType());
-                            acc.candidatesByProject
-                                    .computeIfAbsent(javaProject, k -> new ArrayList<>())
-                                    .add(new MethodInlineCandidate(methodPattern, replacement));
-                            acc.projectBasePaths.putIfAbsent(javaProject, projectBase);
-                            dataTable.insertRow(ctx, new DeprecatedMethodDelegations.Row(
-                                    methodPattern, replacement,
-                                    "- org.openrewrite.java.InlineMethodCalls:\n" +
-                                            "    methodPattern: '" + methodPattern + "'\n" +
-                                            "    replacement: '" + replacement + "'"));
-                            return md;
+                    if (tree instanceof J.CompilationUnit) {
+                        // Replacements are printed as Java, so Kotlin and Groovy sources are only searched for
+                        // declared methods
+                        deprecatedMethodScanner.visit(tree, ctx);
+                    }
+                    if (Boolean.TRUE.equals(pruneStaleEntries)) {
+                        // Entries are stale when no source of the project declares their method anymore
+                        JavaSourceFile sourceFile = (JavaSourceFile) tree;
+                        JavaProject javaProject = sourceFile.getMarkers().findFirst(JavaProject.class).orElse(null);
+                        Set<String> declared = acc.declaredMethodPatterns.computeIfAbsent(javaProject, k -> new HashSet<>());
+                        for (JavaType.Method method : sourceFile.getTypesInUse().getDeclaredMethods()) {
+                            declared.add(MethodMatcher.methodPattern(method));
                         }
-                    }.visit(tree, ctx);
+                        acc.projectBasePaths.putIfAbsent(javaProject, projectBasePath(sourceFile.getSourcePath()));
+                    }
                 }
                 return tree;
             }
@@ -157,15 +124,13 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
         }
 
         List<SourceFile> generated = new ArrayList<>();
-        for (Map.Entry<@Nullable JavaProject, List<MethodInlineCandidate>> entry : acc.candidatesByProject.entrySet()) {
-            Path projectBase = acc.projectBasePaths.getOrDefault(entry.getKey(), Paths.get(""));
-            Path outputPath = projectBase.resolve(OUTPUT_RELATIVE);
-
-            if (acc.existingOutputFiles.contains(outputPath)) {
+        for (Map.Entry<Path, OutputFile> entry : acc.outputFiles().entrySet()) {
+            Path outputPath = entry.getKey();
+            if (acc.existingOutputFiles.contains(outputPath) || entry.getValue().getCandidates().isEmpty()) {
                 continue;
             }
 
-            String recipeName = deriveRecipeName(entry.getKey());
+            String recipeName = deriveRecipeName(entry.getValue().getProject());
             StringBuilder yaml = new StringBuilder();
             if (StringUtils.isNotEmpty(acc.licenseHeader)) {
                 String header = acc.licenseHeader.trim()
@@ -180,7 +145,7 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
             yaml.append("displayName: Inline deprecated delegating methods\n");
             yaml.append("description: Automatically generated recipes to inline deprecated method calls that delegate to other methods in the same class.\n");
             yaml.append("recipeList:\n");
-            for (MethodInlineCandidate candidate : entry.getValue()) {
+            for (MethodInlineCandidate candidate : entry.getValue().getCandidates()) {
                 yaml.append("  - org.openrewrite.java.InlineMethodCalls:\n");
                 yaml.append("      methodPattern: '").append(candidate.getMethodPattern()).append("'\n");
                 yaml.append("      replacement: '").append(candidate.getReplacement()).append("'\n");
@@ -195,12 +160,12 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
-        if (acc.candidatesByProject.isEmpty()) {
+        if (acc.candidatesByProject.isEmpty() && acc.declaredMethodPatterns.isEmpty()) {
             return TreeVisitor.noop();
         }
         return new TreeVisitor<Tree, ExecutionContext>() {
             @Override
-            public Tree preVisit(Tree tree, ExecutionContext ctx) {
+            public @Nullable Tree preVisit(Tree tree, ExecutionContext ctx) {
                 stopAfterPreVisit();
                 if (!(tree instanceof Yaml.Documents)) {
                     return tree;
@@ -215,21 +180,24 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
                     return tree;
                 }
 
-                // Find which project this file belongs to
-                List<MethodInlineCandidate> candidates = null;
-                for (Map.Entry<JavaProject, Path> entry : acc.projectBasePaths.entrySet()) {
-                    Path outputPath = entry.getValue().resolve(OUTPUT_RELATIVE);
-                    if (docs.getSourcePath().equals(outputPath)) {
-                        candidates = acc.candidatesByProject.get(entry.getKey());
-                        break;
-                    }
-                }
-                if (candidates == null || candidates.isEmpty()) {
+                OutputFile outputFile = acc.outputFiles().get(docs.getSourcePath());
+                if (outputFile == null || outputFile.getCandidates().isEmpty() && outputFile.getDeclaredMethodPatterns() == null) {
                     return tree;
                 }
 
-                final List<MethodInlineCandidate> finalCandidates = candidates;
-                return new YamlIsoVisitor<ExecutionContext>() {
+                // Index the candidates by method pattern, keeping the first candidate for a pattern
+                Map<String, MethodInlineCandidate> candidatesByPattern = new LinkedHashMap<>();
+                for (MethodInlineCandidate c : outputFile.getCandidates()) {
+                    candidatesByPattern.putIfAbsent(c.getMethodPattern(), c);
+                }
+                Yaml.Documents updated = (Yaml.Documents) new YamlIsoVisitor<ExecutionContext>() {
+                    @Override
+                    public Yaml.@Nullable Document visitDocument(Yaml.Document document, ExecutionContext ctx) {
+                        Yaml.Document d = super.visitDocument(document, ctx);
+                        // A recipe whose entries were all pruned would no longer do anything
+                        return getCursor().getMessage(PRUNED_ALL_KEY, false) ? null : d;
+                    }
+
                     @Override
                     public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
                         Yaml.Mapping.Entry e = super.visitMappingEntry(entry, ctx);
@@ -244,35 +212,234 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
                         // Collect existing patterns
                         Set<String> existingPatterns = new HashSet<>();
 
-                        // First pass: update existing entries
+                        // First pass: update existing entries, and drop stale ones when pruning
                         List<Yaml.Sequence.Entry> entries = ListUtils.map(seq.getEntries(), seqEntry -> {
                             String existingPattern = extractMethodPattern(seqEntry);
                             if (existingPattern == null) {
                                 return seqEntry;
                             }
-                            existingPatterns.add(existingPattern);
-                            for (MethodInlineCandidate c : finalCandidates) {
-                                if (c.getMethodPattern().equals(existingPattern)) {
-                                    return updateEntry(seqEntry, c);
-                                }
+                            if (outputFile.isStale(existingPattern)) {
+                                return null;
                             }
-                            return seqEntry;
+                            existingPatterns.add(existingPattern);
+                            MethodInlineCandidate c = candidatesByPattern.get(existingPattern);
+                            return c == null ? seqEntry : updateEntry(seqEntry, c);
                         });
 
-                        // Second pass: add new entries for candidates that don't exist yet
-                        for (MethodInlineCandidate c : finalCandidates) {
+                        // Second pass: add new entries for candidates that don't exist yet, all at once
+                        List<MethodInlineCandidate> newCandidates = new ArrayList<>();
+                        for (MethodInlineCandidate c : candidatesByPattern.values()) {
                             if (!existingPatterns.contains(c.getMethodPattern())) {
-                                entries = ListUtils.concat(entries, createNewEntry(c, seq));
+                                newCandidates.add(c);
                             }
                         }
 
-                        return e.withValue(seq.withEntries(entries));
+                        List<Yaml.Sequence.Entry> recipeList = ListUtils.concatAll(entries, createNewEntries(newCandidates, seq));
+                        if (recipeList.isEmpty() && !seq.getEntries().isEmpty()) {
+                            getCursor().putMessageOnFirstEnclosing(Yaml.Document.class, PRUNED_ALL_KEY, true);
+                        }
+                        return e.withValue(seq.withEntries(recipeList));
                     }
                 }.visitNonNull(tree, ctx);
+                // A file without any recipe left is deleted
+                return updated.getDocuments().isEmpty() ? null : updated;
             }
         };
     }
 
+    /**
+     * Collects the deprecated delegating methods of a source file, and records them once the whole file has been
+     * visited, so that a delegation to another deprecated delegating method of the same type can be collapsed into
+     * a single replacement.
+     */
+    @RequiredArgsConstructor
+    private class DelegationScanner extends JavaIsoVisitor<ExecutionContext> {
+        private static final String DELEGATIONS_KEY = "delegations";
+
+        private final Accumulator acc;
+        private final SingleLinePrinter printer = new SingleLinePrinter();
+
+        @Override
+        public @Nullable J visit(@Nullable Tree tree, ExecutionContext ctx) {
+            if (!(tree instanceof JavaSourceFile)) {
+                return super.visit(tree, ctx);
+            }
+            // Method pattern -> Delegation, in declaration order
+            Map<String, Delegation> delegations = new LinkedHashMap<>();
+            getCursor().putMessage(DELEGATIONS_KEY, delegations);
+            J visited = super.visit(tree, ctx);
+            getCursor().pollMessage(DELEGATIONS_KEY);
+
+            JavaSourceFile sourceFile = (JavaSourceFile) tree;
+            JavaProject javaProject = sourceFile.getMarkers().findFirst(JavaProject.class).orElse(null);
+            for (Map.Entry<String, Delegation> entry : delegations.entrySet()) {
+                Delegation delegation = entry.getValue();
+                String replacement = printer.print(collapse(delegation, delegations), delegation.getCursor());
+                if (replacement.indexOf('\n') >= 0) {
+                    // A text block argument, which cannot be written as a single quoted replacement
+                    continue;
+                }
+                String methodPattern = entry.getKey();
+                acc.candidatesByProject
+                        .computeIfAbsent(javaProject, k -> new ArrayList<>())
+                        .add(new MethodInlineCandidate(methodPattern, replacement));
+                acc.projectBasePaths.putIfAbsent(javaProject, projectBasePath(sourceFile.getSourcePath()));
+                dataTable.insertRow(ctx, new DeprecatedMethodDelegations.Row(
+                        methodPattern, replacement,
+                        "- org.openrewrite.java.InlineMethodCalls:\n" +
+                                "    methodPattern: '" + methodPattern + "'\n" +
+                                "    replacement: '" + replacement + "'"));
+            }
+            return visited;
+        }
+
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+            J.MethodDeclaration md = super.visitMethodDeclaration(method, ctx);
+            if (md.getMethodType() == null || md.getBody() == null) {
+                return md;
+            }
+
+            // Check for @Deprecated or @ToBeRemoved annotation
+            if (md.getLeadingAnnotations().stream().noneMatch(
+                    ann -> DEPRECATED_MATCHER.matches(ann) || TO_BE_REMOVED_MATCHER.matches(ann))) {
+                return md;
+            }
+
+            // Check body has exactly one statement that is a method call
+            // (either direct or as return expression)
+            List<Statement> statements = md.getBody().getStatements();
+            if (statements.size() != 1) {
+                return md;
+            }
+
+            MethodCall methodCall;
+            Statement stmt = statements.get(0);
+            if (stmt instanceof MethodCall) {
+                methodCall = (MethodCall) stmt;
+            } else if (stmt instanceof J.Return &&
+                    ((J.Return) stmt).getExpression() instanceof MethodCall) {
+                methodCall = (MethodCall) ((J.Return) stmt).getExpression();
+            } else {
+                return md;
+            }
+            JavaType.Method invokedMethod = methodCall.getMethodType();
+            if (invokedMethod == null) {
+                return md;
+            }
+
+            // Check the invoked method is in the same declaring type
+            JavaType.FullyQualified declaringType = md.getMethodType().getDeclaringType();
+            JavaType.FullyQualified invokedDeclaringType = invokedMethod.getDeclaringType();
+            if (!declaringType.getFullyQualifiedName().equals(invokedDeclaringType.getFullyQualifiedName())) {
+                return md;
+            }
+
+            Map<String, Delegation> delegations = getCursor().getNearestMessage(DELEGATIONS_KEY);
+            if (delegations != null) {
+                delegations.putIfAbsent(MethodMatcher.methodPattern(md.getMethodType()),
+                        new Delegation(md.getMethodType(), methodCall, getCursor()));
+            }
+            return md;
+        }
+    }
+
+    /**
+     * Prints a replacement on a single line without comments, in a single pass over it. Only the whitespace between
+     * tokens is collapsed, so the newlines of text block literals are printed as is. Only prints Java, so it is only
+     * used for the trees of a {@link J.CompilationUnit}.
+     */
+    private static class SingleLinePrinter extends JavaPrinter<Integer> {
+        String print(J call, Cursor cursor) {
+            PrintOutputCapture<Integer> p = new PrintOutputCapture<>(0);
+            visit(call, p, cursor);
+            return p.getOut().trim();
+        }
+
+        @Override
+        public Space visitSpace(Space space, Space.Location loc, PrintOutputCapture<Integer> p) {
+            // Whitespace spanning lines collapses into a single space, as does whitespace holding comments, so the
+            // tokens on either side of a comment stay apart
+            String whitespace = space.getWhitespace();
+            p.append(whitespace.indexOf('\n') < 0 && space.getComments().isEmpty() ? whitespace : " ");
+            return space;
+        }
+    }
+
+    /**
+     * Follows a delegation through other deprecated delegating methods of the same type, substituting the arguments
+     * of each call for the parameters of the next delegation. Stops at the last delegation whose arguments can be
+     * substituted safely, and does not collapse cyclic delegations at all.
+     */
+    private static MethodCall collapse(Delegation delegation, Map<String, Delegation> delegations) {
+        Set<String> chain = new HashSet<>();
+        for (Delegation d = delegation; d != null; d = callee(d, delegations)) {
+            if (!chain.add(MethodMatcher.methodPattern(d.getMethod()))) {
+                return delegation.getCall();
+            }
+        }
+        Delegation callee = callee(delegation, delegations);
+        if (callee == null) {
+            return delegation.getCall();
+        }
+        MethodCall substituted = substitute(collapse(callee, delegations), callee.getMethod(),
+                ((J.MethodInvocation) delegation.getCall()).getArguments());
+        return substituted == null ? delegation.getCall() : substituted;
+    }
+
+    private static @Nullable Delegation callee(Delegation delegation, Map<String, Delegation> delegations) {
+        // Only calls on the same instance, as the callee's own calls have no receiver either
+        if (!(delegation.getCall() instanceof J.MethodInvocation)) {
+            return null;
+        }
+        Expression select = ((J.MethodInvocation) delegation.getCall()).getSelect();
+        if (select != null && !(select instanceof J.Identifier && "this".equals(((J.Identifier) select).getSimpleName()))) {
+            return null;
+        }
+        JavaType.Method invoked = delegation.getCall().getMethodType();
+        return invoked == null ? null : delegations.get(MethodMatcher.methodPattern(invoked));
+    }
+
+    /**
+     * @return The call with the callee's parameters replaced by the arguments, or null when that could change what the
+     * replacement means.
+     */
+    private static @Nullable MethodCall substitute(MethodCall call, JavaType.Method callee, List<Expression> arguments) {
+        List<Expression> args = arguments.stream().filter(arg -> !(arg instanceof J.Empty)).collect(toList());
+        List<String> parameterNames = callee.getParameterNames();
+        if (callee.hasFlags(Flag.Varargs) || args.size() != parameterNames.size()) {
+            return null;
+        }
+        int[] uses = new int[args.size()];
+        boolean[] unsafe = {false};
+        J substituted = new JavaVisitor<Integer>() {
+            @Override
+            public J visitIdentifier(J.Identifier ident, Integer p) {
+                int index = parameterNames.indexOf(ident.getSimpleName());
+                if (index < 0 || ident.getFieldType() == null || !(ident.getFieldType().getOwner() instanceof JavaType.Method)) {
+                    return ident;
+                }
+                Expression arg = args.get(index);
+                Object parent = getCursor().getParentTreeCursor().getValue();
+                boolean argument = parent instanceof MethodCall && ((MethodCall) parent).getArguments().contains(ident);
+                // Anything else than a simple expression might bind differently to the surrounding operators
+                if (!argument && !(arg instanceof J.Identifier || arg instanceof J.Literal || arg instanceof J.FieldAccess ||
+                                   arg instanceof J.MethodInvocation || arg instanceof J.Parentheses)) {
+                    unsafe[0] = true;
+                }
+                uses[index]++;
+                return arg.withPrefix(ident.getPrefix());
+            }
+        }.visitNonNull(call, 0);
+        for (int i = 0; i < uses.length; i++) {
+            // Evaluating an argument more often than the caller did could change the behavior
+            if (uses[i] > 1 && !(args.get(i) instanceof J.Identifier || args.get(i) instanceof J.Literal)) {
+                unsafe[0] = true;
+            }
+        }
+        return unsafe[0] || !(substituted instanceof MethodCall) ? null : (MethodCall) substituted;
+    }
+
     private static @Nullable String extractMethodPattern(Yaml.Sequence.Entry entry) {
         if (!(entry.getBlock() instanceof Yaml.Mapping)) {
             return null;
@@ -319,25 +486,33 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
         })));
     }
 
-    private static Yaml.Sequence.Entry createNewEntry(MethodInlineCandidate candidate, Yaml.Sequence seq) {
-        // Use 6-space indentation to match the expected format in recipeList
-        String yaml = "- org.openrewrite.java.InlineMethodCalls:\n" +
-                "      methodPattern: '" + candidate.getMethodPattern() + "'\n" +
-                "      replacement: '" + candidate.getReplacement() + "'\n";
+    /**
+     * Renders the entries of all candidates into a single sequence, so they are parsed at once.
+     */
+    private static List<Yaml.Sequence.Entry> createNewEntries(List<MethodInlineCandidate> candidates, Yaml.Sequence seq) {
+        if (candidates.isEmpty()) {
+            return emptyList();
+        }
+        StringBuilder yaml = new StringBuilder();
+        for (MethodInlineCandidate candidate : candidates) {
+            // Use 6-space indentation to match the expected format in recipeList
+            yaml.append("- org.openrewrite.java.InlineMethodCalls:\n");
+            yaml.append("      methodPattern: '").append(candidate.getMethodPattern()).append("'\n");
+            yaml.append("      replacement: '").append(candidate.getReplacement()).append("'\n");
+        }
         Yaml.Documents parsed = YamlParser.builder().build()
-                .parse(yaml)
+                .parse(yaml.toString())
                 .findFirst()
                 .map(Yaml.Documents.class::cast)
-                .orElseThrow(() -> new IllegalStateException("Failed to parse YAML entry"));
-        Yaml.Sequence parsedSeq = (Yaml.Sequence) parsed.getDocuments().get(0).getBlock();
-        Yaml.Sequence.Entry newEntry = parsedSeq.getEntries().get(0);
+                .orElseThrow(() -> new IllegalStateException("Failed to parse YAML entries"));
+        List<Yaml.Sequence.Entry> newEntries = ((Yaml.Sequence) parsed.getDocuments().get(0).getBlock()).getEntries();
 
         // Copy whitespace from existing entries if available
-        if (!seq.getEntries().isEmpty()) {
-            Yaml.Sequence.Entry existingEntry = seq.getEntries().get(0);
-            newEntry = newEntry.withPrefix(existingEntry.getPrefix());
+        if (seq.getEntries().isEmpty()) {
+            return newEntries;
         }
-        return newEntry;
+        String prefix = seq.getEntries().get(0).getPrefix();
+        return ListUtils.map(newEntries, newEntry -> newEntry.withPrefix(prefix));
     }
 
     static String deriveRecipeName(@Nullable JavaProject javaProject) {
@@ -367,6 +542,64 @@ public class GenerateDeprecatedMethodRecipes extends ScanningRecipe<GenerateDepr
         final Set<Path> existingOutputFiles = new HashSet<>();
         final Map<JavaProject, List<MethodInlineCandidate>> candidatesByProject = new LinkedHashMap<>();
         final Map<JavaProject, Path> projectBasePaths = new HashMap<>();
+        // Only collected when pruning stale entries
+        final Map<JavaProject, Set<String>> declaredMethodPatterns = new HashMap<>();
+
+        @Nullable
+        private Map<Path, OutputFile> outputFiles;
+
+        /**
+         * The candidates of each project by the output file they are written to, indexed once scanning is complete.
+         */
+        Map<Path, OutputFile> outputFiles() {
+            if (outputFiles == null) {
+                outputFiles = new LinkedHashMap<>();
+                for (Map.Entry<@Nullable JavaProject, List<MethodInlineCandidate>> entry : candidatesByProject.entrySet()) {
+                    Path projectBase = projectBasePaths.getOrDefault(entry.getKey(), Paths.get(""));
+                    outputFiles.putIfAbsent(projectBase.resolve(OUTPUT_RELATIVE),
+                            new OutputFile(entry.getKey(), entry.getValue(), declaredMethodPatterns.get(entry.getKey())));
+                }
+                // Projects without any candidate left may still have entries to prune
+                for (Map.Entry<@Nullable JavaProject, Set<String>> entry : declaredMethodPatterns.entrySet()) {
+                    if (!candidatesByProject.containsKey(entry.getKey())) {
+                        Path projectBase = projectBasePaths.getOrDefault(entry.getKey(), Paths.get(""));
+                        outputFiles.putIfAbsent(projectBase.resolve(OUTPUT_RELATIVE),
+                                new OutputFile(entry.getKey(), emptyList(), entry.getValue()));
+                    }
+                }
+            }
+            return outputFiles;
+        }
+    }
+
+    @Value
+    static class OutputFile {
+        @Nullable
+        JavaProject project;
+
+        List<MethodInlineCandidate> candidates;
+
+        /**
+         * Method patterns of all methods declared in the project, when pruning stale entries.
+         */
+        @Nullable
+        Set<String> declaredMethodPatterns;
+
+        boolean isStale(String methodPattern) {
+            return declaredMethodPatterns != null && !declaredMethodPatterns.contains(methodPattern) &&
+                    !methodPattern.contains("*") && !methodPattern.contains("..");
+        }
+    }
+
+    @Value
+    static class Delegation {
+        JavaType.Method method;
+        MethodCall call;
+
+        /**
+         * Cursor of the deprecated method declaration, to print its replacement in.
+         */
+        Cursor cursor;
     }
 
     @Value
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.intellij.lang.annotations.Language;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import static java.util.stream.Collectors.toList;
+
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class InlineMethodCallsBatch extends Recipe {
+
+    @Option(displayName = "Method calls",
+            description = "The methods to inline, each with the options of an `InlineMethodCalls` recipe.")
+    List<InlineMethodCall> methodCalls;
+
+    String displayName = "Inline several methods";
+
+    @Language("markdown")
+    String description = "Inlines calls to any of the given methods, like a list of `InlineMethodCalls` recipes " +
+            "does, in a single pass over each source file. The method patterns are compiled once into a table keyed " +
+            "by method name, through which each method call is looked up.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        List<String> methodPatterns = methodCalls.stream().map(InlineMethodCall::getMethodPattern).collect(toList());
+        return Preconditions.check(new UsesAnyMethod(methodPatterns, true), new Inliner(methodCalls));
+    }
+
+    @Value
+    public static class InlineMethodCall {
+        String methodPattern;
+
+        String replacement;
+
+        @Nullable
+        Set<String> imports;
+
+        @Nullable
+        Set<String> staticImports;
+
+        @Nullable
+        Set<String> classpathFromResources;
+    }
+
+    /**
+     * Replaces each call to one of the methods by its replacement, in which the parameter names of the method stand
+     * for the arguments of the call and {@code this} for its receiver.
+     */
+    static class Inliner extends JavaVisitor<ExecutionContext> {
+        private final MethodPatternIndex<InlineMethodCall> index = new MethodPatternIndex<>();
+
+        Inliner(List<InlineMethodCall> methodCalls) {
+            for (InlineMethodCall methodCall : methodCalls) {
+                // Overrides are matched, as InlineMethodCalls matches them
+                index.add(methodCall.getMethodPattern(), true, methodCall);
+            }
+        }
+
+        @Override
+        public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+            J j = super.visitMethodInvocation(method, ctx);
+            if (!(j instanceof J.MethodInvocation)) {
+                return j;
+            }
+            J.MethodInvocation m = (J.MethodInvocation) j;
+            return inline(m, m.getSelect(), ctx);
+        }
+
+        @Override
+        public J visitNewClass(J.NewClass newClass, ExecutionContext ctx) {
+            J j = super.visitNewClass(newClass, ctx);
+            if (!(j instanceof J.NewClass) || ((J.NewClass) j).getBody() != null) {
+                return j;
+            }
+            return inline((J.NewClass) j, null, ctx);
+        }
+
+        private J inline(MethodCall call, @Nullable Expression receiver, ExecutionContext ctx) {
+            JavaType.Method methodType = call.getMethodType();
+            InlineMethodCall methodCall = methodType == null ? null : index.first(methodType);
+            if (methodType == null || methodCall == null) {
+                return call;
+            }
+            List<Expression> arguments = call.getArguments().stream()
+                    .filter(arg -> !(arg instanceof J.Empty))
+                    .collect(toList());
+            if (arguments.size() != methodType.getParameterNames().size()) {
+                return call;
+            }
+
+            List<String> parameterNames = methodType.getParameterNames();
+            TypeTree clazz = call instanceof J.NewClass ? ((J.NewClass) call).getClazz() : null;
+            List<Object> parameters = new ArrayList<>();
+            boolean[] contextSensitive = {false};
+            String code = substitute(methodCall.getReplacement(), (name, invoked) -> {
+                if ("this".equals(name)) {
+                    if (invoked && clazz != null) {
+                        // A constructor delegating to another constructor of its class
+                        return "new " + clazz.printTrimmed(getCursor());
+                    }
+                    if (receiver != null) {
+                        parameters.add(receiver);
+                        return placeholder(receiver.getType());
+                    }
+                } else if (!invoked && parameterNames.contains(name)) {
+                    int index = parameterNames.indexOf(name);
+                    parameters.add(arguments.get(index));
+                    return placeholder(methodType.getParameterTypes().get(index));
+                } else if (!invoked) {
+                    return null;
+                } else if (receiver != null) {
+                    // Methods called without a receiver are called on the receiver of the inlined call
+                    parameters.add(receiver);
+                    return placeholder(receiver.getType()) + "." + name;
+                }
+                contextSensitive[0] = true;
+                return null;
+            });
+
+            JavaTemplate.Builder template = JavaTemplate.builder(code);
+            if (contextSensitive[0]) {
+                template.contextSensitive();
+            }
+            if (methodCall.getImports() != null) {
+                template.imports(methodCall.getImports().toArray(new String[0]));
+            }
+            if (methodCall.getStaticImports() != null) {
+                template.staticImports(methodCall.getStaticImports().toArray(new String[0]));
+            }
+            if (methodCall.getClasspathFromResources() != null) {
+                template.javaParser(JavaParser.fromJavaVersion()
+                        .classpathFromResources(ctx, methodCall.getClasspathFromResources().toArray(new String[0])));
+            }
+            J inlined = template.build().apply(getCursor(), call.getCoordinates().replace(), parameters.toArray());
+
+            if (methodCall.getImports() != null) {
+                for (String anImport : methodCall.getImports()) {
+                    maybeAddImport(anImport);
+                }
+            }
+            if (methodCall.getStaticImports() != null) {
+                for (String staticImport : methodCall.getStaticImports()) {
+                    int member = staticImport.lastIndexOf('.');
+                    maybeAddImport(staticImport.substring(0, member), staticImport.substring(member + 1), false);
+                }
+            }
+            maybeRemoveImport(methodType.getDeclaringType().getFullyQualifiedName());
+            return inlined;
+        }
+
+        private static String placeholder(@Nullable JavaType type) {
+            if (type instanceof JavaType.FullyQualified || type instanceof JavaType.Primitive ||
+                    type instanceof JavaType.Array) {
+                return "#{any(" + TypeUtils.toString(type) + ")}";
+            }
+            return "#{any()}";
+        }
+
+        /**
+         * Replaces the identifiers of a replacement outside its string and character literals, except for those
+         * selected from another expression and the types of constructor calls.
+         *
+         * @param substitution Returns the code an identifier is replaced with, or null to keep it. It is told whether
+         *                     the identifier is followed by arguments.
+         */
+        private static String substitute(String replacement,
+                                         BiFunction<String, Boolean, @Nullable String> substitution) {
+            StringBuilder code = new StringBuilder(replacement.length());
+            for (int i = 0; i < replacement.length(); ) {
+                char c = replacement.charAt(i);
+                int end = i + 1;
+                if (c == '"' || c == '\'') {
+                    while (end < replacement.length() && replacement.charAt(end) != c) {
+                        end += replacement.charAt(end) == '\\' ? 2 : 1;
+                    }
+                    end = Math.min(end + 1, replacement.length());
+                    code.append(replacement, i, end);
+                } else if (Character.isJavaIdentifierStart(c)) {
+                    while (end < replacement.length() && Character.isJavaIdentifierPart(replacement.charAt(end))) {
+                        end++;
+                    }
+                    String name = replacement.substring(i, end);
+                    boolean invoked = replacement.startsWith("(", skipWhitespace(replacement, end));
+                    String substituted = selected(code) ? null : substitution.apply(name, invoked);
+                    code.append(substituted == null ? name : substituted);
+                } else {
+                    code.append(c);
+                }
+                i = end;
+            }
+            return code.toString();
+        }
+
+        private static int skipWhitespace(String s, int from) {
+            int i = from;
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        /**
+         * @return Whether the identifier following the code is selected from an expression or is the type of a
+         * constructor call.
+         */
+        private static boolean selected(CharSequence code) {
+            String trimmed = code.toString().trim();
+            return trimmed.endsWith(".") || trimmed.endsWith("::") ||
+                    trimmed.endsWith("new") && (trimmed.length() == 3 ||
+                            !Character.isJavaIdentifierPart(trimmed.charAt(trimmed.length() - 4)));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Method patterns compiled once into a table keyed by method name, so each method a source file uses is only matched
+ * against the patterns for its name and the patterns that may match several names.
+ *
+ * @param <T> The value registered with each pattern.
+ */
+final class MethodPatternIndex<T> {
+    private static final String CONSTRUCTOR = "<constructor>";
+
+    private final Map<String, List<Pattern<T>>> patternsByName = new HashMap<>();
+    private final List<Pattern<T>> wildcardPatterns = new ArrayList<>();
+    private int size;
+
+    void add(String methodPattern, boolean matchOverrides, T value) {
+        Pattern<T> pattern = new Pattern<>(new MethodMatcher(methodPattern, matchOverrides), value, size++);
+        String name = methodName(methodPattern);
+        if (name == null) {
+            wildcardPatterns.add(pattern);
+        } else {
+            patternsByName.computeIfAbsent(name, k -> new ArrayList<>()).add(pattern);
+        }
+    }
+
+    boolean matchesAny(Collection<JavaType.Method> methods) {
+        for (JavaType.Method method : methods) {
+            if (first(method) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The value of the first added pattern matching the method, or null when none does.
+     */
+    @Nullable T first(JavaType.Method method) {
+        Pattern<T> first = null;
+        for (Pattern<T> pattern : patternsByName.getOrDefault(method.getName(), emptyList())) {
+            if (pattern.getMatcher().matches(method)) {
+                first = pattern;
+                break;
+            }
+        }
+        for (Pattern<T> pattern : wildcardPatterns) {
+            if (first != null && pattern.getOrder() > first.getOrder()) {
+                break;
+            }
+            if (pattern.getMatcher().matches(method)) {
+                first = pattern;
+                break;
+            }
+        }
+        return first == null ? null : first.getValue();
+    }
+
+    /**
+     * @return The method name a pattern matches, or null when it may match several names.
+     */
+    private static @Nullable String methodName(String methodPattern) {
+        int parameters = methodPattern.indexOf('(');
+        String typeAndName = (parameters < 0 ? methodPattern : methodPattern.substring(0, parameters)).trim();
+        int separator = Math.max(typeAndName.lastIndexOf(' '), typeAndName.lastIndexOf('#'));
+        if (separator < 0) {
+            return null;
+        }
+        String type = typeAndName.substring(0, separator).trim();
+        String name = typeAndName.substring(separator + 1);
+        if (name.contains("*") || type.contains("*")) {
+            return null;
+        }
+        // Constructors may also be written with the simple name of their type
+        String simpleTypeName = type.substring(Math.max(type.lastIndexOf('.'), type.lastIndexOf('$')) + 1);
+        return name.equals(simpleTypeName) ? CONSTRUCTOR : name;
+    }
+
+    @Value
+    private static class Pattern<T> {
+        MethodMatcher matcher;
+        T value;
+
+        /**
+         * The position of the pattern among all added patterns.
+         */
+        int order;
+    }
+}
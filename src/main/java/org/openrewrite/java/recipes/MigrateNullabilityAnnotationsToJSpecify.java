@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeTree;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class MigrateNullabilityAnnotationsToJSpecify extends Recipe {
+
+    private static final Map<String, String> JSPECIFY_ANNOTATIONS = new HashMap<>();
+
+    static {
+        JSPECIFY_ANNOTATIONS.put("org.openrewrite.internal.lang.Nullable", "org.jspecify.annotations.Nullable");
+        JSPECIFY_ANNOTATIONS.put("org.openrewrite.internal.lang.NonNull", "org.jspecify.annotations.NonNull");
+        JSPECIFY_ANNOTATIONS.put("org.openrewrite.internal.lang.NonNullApi", "org.jspecify.annotations.NullMarked");
+    }
+
+    String displayName = "Change OpenRewrite nullability annotations to JSpecify";
+
+    String description = "Replaces `@Nullable`, `@NonNull` and `@NonNullApi` from `org.openrewrite.internal.lang` " +
+            "with their JSpecify counterparts in a single pass over each source file. Besides annotations, this " +
+            "changes all other references to these types, like class literals and Javadoc links, and their imports.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(
+                new UsesType<>("org.openrewrite.internal.lang.*", false),
+                new JavaVisitor<ExecutionContext>() {
+                    @Override
+                    public J visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                        // Leave the definitions of the annotations alone
+                        if (cu.getPackageDeclaration() != null &&
+                                "org.openrewrite.internal.lang".equals(cu.getPackageDeclaration().getPackageName())) {
+                            return cu;
+                        }
+                        return super.visitCompilationUnit(cu, ctx);
+                    }
+
+                    @Override
+                    public J visitImport(J.Import anImport, ExecutionContext ctx) {
+                        // Imports are replaced once their types are no longer referenced
+                        return anImport;
+                    }
+
+                    @Override
+                    public J visitFieldAccess(J.FieldAccess fieldAccess, ExecutionContext ctx) {
+                        for (Map.Entry<String, String> types : JSPECIFY_ANNOTATIONS.entrySet()) {
+                            if (fieldAccess.isFullyQualifiedClassReference(types.getKey())) {
+                                maybeRemoveImport(types.getKey());
+                                return TypeTree.<J.FieldAccess>build(types.getValue())
+                                        .withPrefix(fieldAccess.getPrefix());
+                            }
+                        }
+                        return super.visitFieldAccess(fieldAccess, ctx);
+                    }
+
+                    @Override
+                    public J visitIdentifier(J.Identifier identifier, ExecutionContext ctx) {
+                        J.Identifier i = (J.Identifier) super.visitIdentifier(identifier, ctx);
+                        JavaType.FullyQualified type = TypeUtils.asFullyQualified(i.getType());
+                        // Only references to the types, not variables or members named like them
+                        if (i.getFieldType() != null || type == null ||
+                                !JSPECIFY_ANNOTATIONS.containsKey(type.getFullyQualifiedName()) ||
+                                !i.getSimpleName().equals(type.getClassName()) ||
+                                getCursor().getParentTreeCursor().getValue() instanceof J.ClassDeclaration) {
+                            return i;
+                        }
+                        String jspecifyType = JSPECIFY_ANNOTATIONS.get(type.getFullyQualifiedName());
+                        maybeRemoveImport(type.getFullyQualifiedName());
+                        maybeAddImport(jspecifyType);
+                        return i.withSimpleName(jspecifyType.substring(jspecifyType.lastIndexOf('.') + 1))
+                                .withType(JavaType.ShallowClass.build(jspecifyType));
+                    }
+                }
+        );
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class RecipeSourceBlobs extends DataTable<RecipeSourceBlobs.Row> {
+
+    public RecipeSourceBlobs(Recipe recipe) {
+        super(recipe,
+                "Recipe source blobs",
+                "The distinct source code referenced by content hash from the `Rewrite recipe source code` table, " +
+                        "so a source file containing several recipes is only stored once.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Content hash",
+                description = "The SHA-256 hash of the source code, or its `fingerprint:` reference when a " +
+                        "fingerprint index is used, as referenced by the recipe source code table.")
+        String contentHash;
+
+        @Column(displayName = "Source code",
+                description = "The full source code.")
+        String sourceCode;
+    }
+}
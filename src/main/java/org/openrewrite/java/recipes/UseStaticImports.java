@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.intellij.lang.annotations.Language;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.Flag;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class UseStaticImports extends Recipe {
+
+    private static final String STATIC_IMPORTS_KEY = "STATIC_IMPORTS";
+
+    @Option(displayName = "Method patterns",
+            description = "The method patterns of the static methods to call through a static import.",
+            example = "java.util.Collections *(..)")
+    List<String> methodPatterns;
+
+    String displayName = "Use static imports for several methods";
+
+    @Language("markdown")
+    String description = "Removes the class qualifier from calls to any of the given static methods and adds the " +
+            "matching static imports, like `UseStaticImport` does for a single method pattern. All patterns are " +
+            "applied in one pass over each source file, after which the imports are updated once.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        List<MethodMatcher> methodMatchers = methodPatterns.stream().map(MethodMatcher::new).collect(toList());
+        return Preconditions.check(new UsesAnyMethod(methodPatterns, null).getVisitor(), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                // Declaring type -> Statically imported method names, so each import is only added and removed once
+                Map<String, Set<String>> staticImports = new LinkedHashMap<>();
+                getCursor().putMessage(STATIC_IMPORTS_KEY, staticImports);
+                J.CompilationUnit c = super.visitCompilationUnit(cu, ctx);
+                staticImports.forEach((type, methodNames) -> {
+                    maybeRemoveImport(type);
+                    for (String methodName : methodNames) {
+                        maybeAddImport(type, methodName, false);
+                    }
+                });
+                return c;
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                JavaType.Method methodType = m.getMethodType();
+                if (m.getSelect() == null || methodType == null || !methodType.hasFlags(Flag.Static) ||
+                        (m.getTypeParameters() != null && !m.getTypeParameters().isEmpty()) ||
+                        !matches(m)) {
+                    return m;
+                }
+                String type = methodType.getDeclaringType().getFullyQualifiedName();
+                Map<String, Set<String>> staticImports =
+                        getCursor().getNearestMessage(STATIC_IMPORTS_KEY, new LinkedHashMap<>());
+                if (conflicts(type, m.getSimpleName(), staticImports)) {
+                    return m;
+                }
+                staticImports.computeIfAbsent(type, k -> new LinkedHashSet<>()).add(m.getSimpleName());
+                return m.withSelect(null).withName(m.getName().withPrefix(m.getSelect().getPrefix()));
+            }
+
+            private boolean matches(J.MethodInvocation method) {
+                for (MethodMatcher methodMatcher : methodMatchers) {
+                    if (methodMatcher.matches(method)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            /**
+             * @return Whether the unqualified method name would resolve to another method in this source file,
+             * to a method the enclosing classes inherit, or to a method of another type imported in this pass.
+             */
+            private boolean conflicts(String type, String methodName, Map<String, Set<String>> staticImports) {
+                for (Map.Entry<String, Set<String>> imported : staticImports.entrySet()) {
+                    if (!imported.getKey().equals(type) && imported.getValue().contains(methodName)) {
+                        return true;
+                    }
+                }
+                J.CompilationUnit cu = getCursor().firstEnclosingOrThrow(J.CompilationUnit.class);
+                for (JavaType.Method declared : cu.getTypesInUse().getDeclaredMethods()) {
+                    if (declared.getName().equals(methodName)) {
+                        return true;
+                    }
+                }
+                Set<String> visited = new HashSet<>();
+                for (Iterator<Object> it = getCursor().getPath(J.ClassDeclaration.class::isInstance); it.hasNext(); ) {
+                    if (inherits(((J.ClassDeclaration) it.next()).getType(), type, methodName, visited)) {
+                        return true;
+                    }
+                }
+                for (J.Import anImport : cu.getImports()) {
+                    if (anImport.isStatic() && anImport.getQualid().getSimpleName().equals(methodName) &&
+                            !anImport.getTypeName().equals(type)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            private boolean inherits(JavaType.@Nullable FullyQualified classType, String type, String methodName,
+                                     Set<String> visited) {
+                if (classType == null || !visited.add(classType.getFullyQualifiedName())) {
+                    return false;
+                }
+                if (!classType.getFullyQualifiedName().equals(type)) {
+                    for (JavaType.Method method : classType.getMethods()) {
+                        if (method.getName().equals(methodName)) {
+                            return true;
+                        }
+                    }
+                }
+                for (JavaType.FullyQualified anInterface : classType.getInterfaces()) {
+                    if (inherits(anInterface, type, methodName, visited)) {
+                        return true;
+                    }
+                }
+                return inherits(classType.getSupertype(), type, methodName, visited);
+            }
+        });
+    }
+}
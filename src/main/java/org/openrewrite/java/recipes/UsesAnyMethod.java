@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.intellij.lang.annotations.Language;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.List;
+
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class UsesAnyMethod extends Recipe {
+
+    @Option(displayName = "Method patterns",
+            description = "The method patterns of which a source file has to use at least one.",
+            example = "org.openrewrite.java.trait.Traits literal()")
+    List<String> methodPatterns;
+
+    @Option(displayName = "Match on overrides",
+            description = "When enabled, find methods that are overrides of the method patterns, " +
+                    "like `InlineMethodCalls` does.",
+            required = false)
+    @Nullable
+    Boolean matchOverrides;
+
+    String displayName = "Find source files using any of several methods";
+
+    @Language("markdown")
+    String description = "Finds source files that use any of the given methods, checking all patterns at once " +
+            "against the methods a source file uses. As the precondition of a long list of method specific recipes, " +
+            "it lets all of them skip the source files none of them would change.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        MethodPatternIndex<String> index = new MethodPatternIndex<>();
+        for (String methodPattern : methodPatterns) {
+            index.add(methodPattern, Boolean.TRUE.equals(matchOverrides), methodPattern);
+        }
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public @Nullable J visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof JavaSourceFile) {
+                    JavaSourceFile sourceFile = (JavaSourceFile) tree;
+                    return index.matchesAny(sourceFile.getTypesInUse().getUsedMethods()) ?
+                            SearchResult.found(sourceFile) : sourceFile;
+                }
+                return super.visit(tree, ctx);
+            }
+        };
+    }
+}
@@ -20,18 +20,15 @@ import lombok.Getter;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.Cursor;
 import org.openrewrite.Tree;
+import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.MethodMatcher;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.TypeUtils;
 import org.openrewrite.trait.SimpleTraitMatcher;
 import org.openrewrite.trait.Trait;
-import org.openrewrite.yaml.JsonPathMatcher;
-import org.openrewrite.yaml.YamlVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
-import java.util.concurrent.atomic.AtomicReference;
-
 @AllArgsConstructor
 @Getter
 public class Recipe implements Trait<Tree> {
@@ -69,18 +66,12 @@ public class Recipe implements Trait<Tree> {
   }
 
   private String getYamlMappingValue(String key) {
-    AtomicReference<String> value = new AtomicReference<>();
-    new YamlVisitor<Integer>() {
-      @Override
-      public Yaml visitMappingEntry(Yaml.Mapping.Entry entry, Integer p) {
-        if (new JsonPathMatcher("$." + key).matches(getCursor()) &&
-            entry.getValue() instanceof Yaml.Scalar) {
-          value.set(((Yaml.Scalar) entry.getValue()).getValue());
-        }
-        return entry;
-      }
-    }.visit(getTree(), 0, cursor.getParentOrThrow());
-    return value.get();
+    Yaml.Mapping.Entry entry = getTree() instanceof Yaml.Document ?
+      topLevelEntry((Yaml.Document) getTree(), key) : null;
+    if (entry != null && entry.getValue() instanceof Yaml.Scalar) {
+      return ((Yaml.Scalar) entry.getValue()).getValue();
+    }
+    return null;
   }
 
   private String getLiteralReturnValue(MethodMatcher method) {
@@ -124,17 +115,30 @@ public class Recipe implements Trait<Tree> {
   }
 
   private Recipe withYamlMappingValue(String key, String value) {
-    cursor = new Cursor(cursor.getParent(), new YamlVisitor<Integer>() {
-      @Override
-      public Yaml visitMappingEntry(Yaml.Mapping.Entry entry, Integer p) {
-        if (new JsonPathMatcher("$." + key).matches(getCursor()) &&
-            entry.getValue() instanceof Yaml.Scalar) {
-          return entry.withValue(((Yaml.Scalar) entry.getValue()).withValue(value));
+    if (getTree() instanceof Yaml.Document && ((Yaml.Document) getTree()).getBlock() instanceof Yaml.Mapping) {
+      Yaml.Document document = (Yaml.Document) getTree();
+      Yaml.Mapping mapping = (Yaml.Mapping) document.getBlock();
+      cursor = new Cursor(cursor.getParent(), document.withBlock(mapping.withEntries(ListUtils.map(mapping.getEntries(),
+        entry -> key.equals(entry.getKey().getValue()) && entry.getValue() instanceof Yaml.Scalar ?
+          entry.withValue(((Yaml.Scalar) entry.getValue()).withValue(value)) :
+          entry))));
+    }
+    return this;
+  }
+
+  /**
+   * Recipe properties are top-level keys of the document, so there is no need to
+   * match a JSONPath expression against every entry of the document.
+   */
+  private static Yaml.Mapping.@Nullable Entry topLevelEntry(Yaml.Document document, String key) {
+    if (document.getBlock() instanceof Yaml.Mapping) {
+      for (Yaml.Mapping.Entry entry : ((Yaml.Mapping) document.getBlock()).getEntries()) {
+        if (key.equals(entry.getKey().getValue())) {
+          return entry;
         }
-        return entry;
       }
-    }.visitNonNull(getTree(), 0, cursor.getParentOrThrow()));
-    return this;
+    }
+    return null;
   }
 
   public static class Matcher extends SimpleTraitMatcher<Recipe> {
@@ -147,18 +151,11 @@ public class Recipe implements Trait<Tree> {
           return new Recipe(cursor);
         }
       } else if (value instanceof Yaml.Document) {
-        AtomicReference<Recipe> recipe = new AtomicReference<>();
-        new YamlVisitor<Integer>() {
-          @Override
-          public Yaml visitScalar(Yaml.Scalar scalar, Integer p) {
-            if (new JsonPathMatcher("$.type").matches(getCursor().getParentOrThrow()) &&
-                "specs.openrewrite.org/v1beta/recipe".equals(scalar.getValue())) {
-              recipe.set(new Recipe(cursor));
-            }
-            return scalar;
-          }
-        }.visit((Yaml.Document) value, 0, cursor.getParentOrThrow());
-        return recipe.get();
+        Yaml.Mapping.Entry type = topLevelEntry((Yaml.Document) value, "type");
+        if (type != null && type.getValue() instanceof Yaml.Scalar &&
+            "specs.openrewrite.org/v1beta/recipe".equals(((Yaml.Scalar) type.getValue()).getValue())) {
+          return new Recipe(cursor);
+        }
       }
       return null;
     }
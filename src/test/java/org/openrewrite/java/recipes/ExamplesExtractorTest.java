@@ -17,11 +17,23 @@ package org.openrewrite.java.recipes;
 
 import org.intellij.lang.annotations.Language;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.openrewrite.DocumentExample;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.config.RecipeExample;
+import org.openrewrite.java.tree.J;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 import org.openrewrite.test.SourceSpec;
 
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.*;
 import static org.openrewrite.test.SourceSpecs.text;
 import static org.openrewrite.yaml.Assertions.yaml;
@@ -56,9 +68,87 @@ class ExamplesExtractorTest implements RewriteTest {
       }
       """;
 
+    @Language("java")
+    private static final String ORDER_IMPORTS_TEST = """
+      package org.openrewrite.staticanalysis;
+
+      import org.junit.jupiter.api.Test;
+      import org.openrewrite.DocumentExample;
+      import org.openrewrite.java.OrderImports;
+      import org.openrewrite.test.RecipeSpec;
+      import org.openrewrite.test.RewriteTest;
+
+      import static org.openrewrite.java.Assertions.java;
+
+      class OrderImportsTest implements RewriteTest {
+          @Override
+          public void defaults(RecipeSpec spec) {
+              spec.recipe(new OrderImports(null, null));
+          }
+
+          @DocumentExample
+          @Test
+          void orderImports() {
+              rewriteRun(
+                java(
+                  \"""
+                    import java.util.List;
+                    class A {
+                    }
+                    \""",
+                  \"""
+                    class A {
+                    }
+                    \"""
+                ),
+                java(
+                  \"""
+                    import java.util.List;
+                    class B {
+                    }
+                    \""",
+                  \"""
+                    class B {
+                    }
+                    \"""
+                )
+              );
+          }
+      }
+      """;
+
+    @Language("yaml")
+    private static final String ORDER_IMPORTS_EXAMPLES = """
+      ---
+      type: specs.openrewrite.org/v1beta/example
+      recipeName: org.openrewrite.java.OrderImports
+      examples:
+      - description: '`OrderImportsTest#orderImports`'
+        parameters:
+        - 'null'
+        - 'null'
+        sources:
+        - before: |
+            import java.util.List;
+            class A {
+            }
+          after: |
+            class A {
+            }
+          language: java
+        - before: |
+            import java.util.List;
+            class B {
+            }
+          after: |
+            class B {
+            }
+          language: java
+      """;
+
     @Override
     public void defaults(RecipeSpec spec) {
-        spec.recipe(new ExamplesExtractor());
+        spec.recipe(new ExamplesExtractor(null, null, null, null));
     }
 
     @DocumentExample
@@ -222,6 +312,21 @@ class ExamplesExtractorTest implements RewriteTest {
         );
     }
 
+    @Test
+    void unchangedExampleFile() {
+        rewriteRun(
+          mavenProject(
+            "project",
+            srcMainResources(
+              yaml(ORDER_IMPORTS_EXAMPLES, spec -> spec.path("META-INF/rewrite/examples.yml"))
+            ),
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+    }
+
     @Test
     void parserTestWithoutRecipe() {
         rewriteRun(
@@ -1136,6 +1241,263 @@ class ExamplesExtractorTest implements RewriteTest {
         );
     }
 
+    @Test
+    void shardByRecipePackage() {
+        //language=yaml
+        rewriteRun(
+          spec -> spec.recipe(new ExamplesExtractor(null, null, "package", null)),
+          mavenProject(
+            "project",
+            srcMainResources(
+              yaml(
+                """
+                  ---
+                  type: specs.openrewrite.org/v1beta/example
+                  recipeName: org.openrewrite.java.OrderImports
+                  examples:
+                  - description: '`OrderImportsTest#orderImports`'
+                    sources:
+                    - before: |
+                        import java.util.List;
+                        class A {
+                        }
+                      language: java
+                  """,
+                null, // written when sharding by recipe, so removed to not publish the examples twice
+                spec -> spec.path("META-INF/rewrite/examples-org.openrewrite.java.OrderImports.yml")
+              ),
+              yaml(
+                doesNotExist(), // newly created
+                ORDER_IMPORTS_EXAMPLES,
+                spec -> spec.path("META-INF/rewrite/examples-org.openrewrite.java.yml")
+              )
+            ),
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+    }
+
+    @Test
+    void examplesFilesNotNamedLikeShardKept() {
+        //language=yaml
+        rewriteRun(
+          spec -> spec.recipe(new ExamplesExtractor(null, null, "package", null)),
+          mavenProject(
+            "project",
+            srcMainResources(
+              yaml(
+                """
+                  ---
+                  type: specs.openrewrite.org/v1beta/example
+                  recipeName: org.openrewrite.java.RemoveUnusedImports
+                  examples:
+                  - description: Written by hand
+                    sources:
+                    - before: |
+                        import java.util.List;
+                        class A {}
+                      after: |
+                        class A {}
+                      language: java
+                  """,
+                spec -> spec.path("META-INF/rewrite/examples-custom.yml")
+              ),
+              yaml(
+                doesNotExist(), // newly created
+                ORDER_IMPORTS_EXAMPLES,
+                spec -> spec.path("META-INF/rewrite/examples-org.openrewrite.java.yml")
+              )
+            ),
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+    }
+
+    @Test
+    void shardByValidated() {
+        assertThat(new ExamplesExtractor(null, null, "recipe", null).validate().isValid()).isTrue();
+        assertThat(new ExamplesExtractor(null, null, "file", null).validate().isInvalid()).isTrue();
+    }
+
+    @Test
+    void spillExampleSourcesToDisk() {
+        ExamplesExtractor.Accumulator acc = new ExamplesExtractor.Accumulator(0L,
+          new ExamplesExtractor.TargetPaths(null), null);
+        rewriteRun(
+          spec -> spec.recipe(RewriteTest.toRecipe(() -> new ExamplesExtractor.ExamplesExtractorVisitor(acc))),
+          java(ORDER_IMPORTS_TEST)
+        );
+        assertThat(acc.sourceLog).isNotNull();
+        assertThat(acc.extractedExamples.values()).singleElement().satisfies(extracted ->
+          assertThat(extracted.examples).singleElement().satisfies(targeted -> {
+              assertThat(targeted.spilledAt).isNotNegative();
+              assertThat(targeted.example.getSources()).allSatisfy(source -> assertThat(source.getBefore()).isEmpty());
+          }));
+    }
+
+    @Test
+    void spilledExamplesWrittenOverSeveralCycles() {
+        rewriteRun(
+          // The spilled texts are still readable in the cycle after the one printing them
+          spec -> spec.recipe(new ExamplesExtractor(0L, null, null, null))
+            .cycles(2)
+            .expectedCyclesThatMakeChanges(1),
+          mavenProject(
+            "project",
+            srcMainResources(
+              yaml(
+                doesNotExist(), // newly created
+                ORDER_IMPORTS_EXAMPLES,
+                spec -> spec.path("META-INF/rewrite/examples.yml")
+              )
+            ),
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+    }
+
+    @Test
+    void spilledSourcesReadBackUntilRunCompletes() {
+        ExamplesExtractor recipe = new ExamplesExtractor(0L, null, null, null);
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        ExamplesExtractor.Accumulator acc = recipe.getInitialValue(ctx);
+        RecipeExample example = new RecipeExample();
+        example.setDescription("`OrderImportsTest#orderImports`");
+        example.setParameters(List.of());
+        example.setSources(List.of(new RecipeExample.Source("import java.util.List;\nclass A {\n}\n", "class A {\n}\n", null, "java")));
+        Path examplesFile = Path.of("src/main/resources/META-INF/rewrite/examples.yml");
+        ExamplesExtractor.TargetedExample targeted = new ExamplesExtractor.TargetedExample(
+          examplesFile, "org.openrewrite.java.OrderImports", example);
+
+        acc.retain(List.of(targeted));
+        assertThat(targeted.spilledAt).isNotNegative();
+        assertThat(example.getSources().getFirst().getBefore()).isEmpty();
+        Path log = requireNonNull(acc.sourceLog).file;
+        assertThat(log).exists();
+
+        assertThat(acc.examples(List.of(targeted))).singleElement().satisfies(read -> {
+            assertThat(read.getSources().getFirst().getBefore()).isEqualTo("import java.util.List;\nclass A {\n}\n");
+            assertThat(read.getSources().getFirst().getAfter()).isEqualTo("class A {\n}\n");
+        });
+
+        acc.projectRecipeExamples = Map.of(examplesFile, Map.of("org.openrewrite.java.OrderImports", List.of(targeted)));
+        acc.printed(examplesFile);
+        assertThat(log).exists();
+        assertThat(acc.examples(List.of(targeted))).singleElement().satisfies(read ->
+          assertThat(read.getSources().getFirst().getBefore()).isEqualTo("import java.util.List;\nclass A {\n}\n"));
+
+        recipe.onComplete(ctx);
+        assertThat(log).doesNotExist();
+    }
+
+    @Test
+    void reuseExamplesCachedByEarlierRun(@TempDir Path tempDir) {
+        Path cacheFile = tempDir.resolve("examples-cache.bin");
+        rewriteRun(
+          spec -> spec.recipe(new ExamplesExtractor(null, null, null, cacheFile.toString())),
+          mavenProject(
+            "project",
+            srcMainResources(
+              yaml(
+                doesNotExist(), // newly created
+                ORDER_IMPORTS_EXAMPLES,
+                spec -> spec.path("META-INF/rewrite/examples.yml")
+              )
+            ),
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+
+        // The next run reads the examples of the unchanged test source back from the cache, without visiting it
+        ExamplesExtractor.Accumulator acc = new ExamplesExtractor.Accumulator(null,
+          new ExamplesExtractor.TargetPaths(null), new ExamplesExtractor.ExamplesCache(cacheFile));
+        AtomicInteger visitedClasses = new AtomicInteger();
+        rewriteRun(
+          spec -> spec.recipe(RewriteTest.toRecipe(() -> new ExamplesExtractor.ExamplesExtractorVisitor(acc) {
+              @Override
+              public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                  visitedClasses.incrementAndGet();
+                  return super.visitClassDeclaration(classDecl, ctx);
+              }
+          })),
+          mavenProject(
+            "project",
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+        assertThat(visitedClasses).hasValue(0);
+        assertThat(acc.extractedExamples.values()).singleElement().satisfies(extracted ->
+          assertThat(extracted.examples).singleElement().satisfies(targeted -> {
+              assertThat(targeted.recipeName).isEqualTo("org.openrewrite.java.OrderImports");
+              assertThat(targeted.example.getSources()).hasSize(2);
+          }));
+    }
+
+    @Test
+    void examplesOfUnchangedTestSourcesNotPrintedAgain(@TempDir Path tempDir) {
+        Path cacheFile = tempDir.resolve("examples-cache.bin");
+        rewriteRun(
+          spec -> spec.recipe(new ExamplesExtractor(null, null, null, cacheFile.toString())),
+          mavenProject(
+            "project",
+            srcMainResources(
+              yaml(doesNotExist(), ORDER_IMPORTS_EXAMPLES, spec -> spec.path("META-INF/rewrite/examples.yml"))
+            ),
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+        // The fingerprint of the examples matches the one printed by the last run, so the document is not printed to
+        // be compared, which leaves an edit made to it since
+        rewriteRun(
+          spec -> spec.recipe(new ExamplesExtractor(null, null, null, cacheFile.toString())),
+          mavenProject(
+            "project",
+            srcMainResources(
+              yaml(ORDER_IMPORTS_EXAMPLES.replace("`OrderImportsTest#orderImports`", "Edited"),
+                spec -> spec.path("META-INF/rewrite/examples.yml"))
+            ),
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+    }
+
+    @Test
+    void moduleMappings() {
+        rewriteRun(
+          spec -> spec.recipe(new ExamplesExtractor(null, List.of("projectA-test=projectA"), null, null)),
+          mavenProject(
+            "projectA",
+            srcMainResources(
+              yaml(
+                doesNotExist(), // newly created
+                ORDER_IMPORTS_EXAMPLES,
+                spec -> spec.path("META-INF/rewrite/examples.yml")
+              )
+            )
+          ),
+          mavenProject(
+            "projectA-test",
+            srcTestJava(
+              java(ORDER_IMPORTS_TEST)
+            )
+          )
+        );
+    }
+
     @Test
     void twoProjectsWrittenToSeparateNewFiles() {
         //language=yaml
@@ -16,12 +16,24 @@
 package org.openrewrite.java.recipes;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.table.RewriteRecipeSource;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
 import static org.openrewrite.yaml.Assertions.yaml;
@@ -112,6 +124,102 @@ class FindRecipesTest implements RewriteTest {
         );
     }
 
+    @Test
+    void optionsScopedToTheirRecipe() {
+        rewriteRun(
+          spec -> spec
+            .dataTable(RewriteRecipeSource.Row.class, rows -> {
+                assertThat(rows).hasSize(2);
+                assertThat(rows.getFirst().getOptions()).isEqualTo("[{\"name\":\"first\",\"displayName\":\"First\",\"description\":\"The first option.\"}]");
+                assertThat(rows.get(1).getOptions()).isEqualTo("[{\"name\":\"second\",\"displayName\":\"Second\",\"description\":\"The second option.\"}]");
+            }),
+          java(
+            """
+              import org.openrewrite.Option;
+              import org.openrewrite.Recipe;
+
+              class MyRecipes {
+                  static class FirstRecipe extends Recipe {
+                      @Option(displayName = "First", description = "The first option.")
+                      String first;
+
+                      Object helper = new Object() {
+                          @Option(displayName = "Nested", description = "Not an option of this recipe.")
+                          String nested;
+                      };
+
+                      @Override
+                      public String getDisplayName() {
+                          return "First recipe";
+                      }
+
+                      @Override
+                      public String getDescription() {
+                          return "This is the first recipe.";
+                      }
+                  }
+
+                  static class SecondRecipe extends Recipe {
+                      @Option(displayName = "Second", description = "The second option.")
+                      String second;
+
+                      @Override
+                      public String getDisplayName() {
+                          return "Second recipe";
+                      }
+
+                      @Override
+                      public String getDescription() {
+                          return "This is the second recipe.";
+                      }
+                  }
+              }
+              """,
+            """
+              import org.openrewrite.Option;
+              import org.openrewrite.Recipe;
+
+              class MyRecipes {
+                  static class /*~~>*/FirstRecipe extends Recipe {
+                      @Option(displayName = "First", description = "The first option.")
+                      String first;
+
+                      Object helper = new Object() {
+                          @Option(displayName = "Nested", description = "Not an option of this recipe.")
+                          String nested;
+                      };
+
+                      @Override
+                      public String getDisplayName() {
+                          return "First recipe";
+                      }
+
+                      @Override
+                      public String getDescription() {
+                          return "This is the first recipe.";
+                      }
+                  }
+
+                  static class /*~~>*/SecondRecipe extends Recipe {
+                      @Option(displayName = "Second", description = "The second option.")
+                      String second;
+
+                      @Override
+                      public String getDisplayName() {
+                          return "Second recipe";
+                      }
+
+                      @Override
+                      public String getDescription() {
+                          return "This is the second recipe.";
+                      }
+                  }
+              }
+              """
+          )
+        );
+    }
+
     @Test
     void returnInLambda() {
         rewriteRun(
@@ -246,4 +354,271 @@ class FindRecipesTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void deduplicateSources() {
+        rewriteRun(
+          spec -> spec
+            .recipe(new FindRecipes(true, null, null))
+            .dataTable(RewriteRecipeSource.Row.class, rows -> {
+                assertThat(rows).hasSize(2);
+                assertThat(rows.getFirst().getSourceCode())
+                  .hasSize(64)
+                  .isEqualTo(rows.get(1).getSourceCode());
+            })
+            .dataTable(RecipeSourceBlobs.Row.class, rows -> {
+                assertThat(rows).hasSize(1);
+                assertThat(rows.getFirst().getSourceCode()).startsWith("import org.openrewrite.Recipe;");
+            }),
+          java(
+            """
+              import org.openrewrite.Recipe;
+
+              class MyRecipes {
+                static class FirstRecipe extends Recipe {
+                  @Override
+                  public String getDisplayName() {
+                      return "First recipe";
+                  }
+
+                  @Override
+                  public String getDescription() {
+                      return "This is the first recipe.";
+                  }
+                }
+
+                static class SecondRecipe extends Recipe {
+                  @Override
+                  public String getDisplayName() {
+                      return "Second recipe";
+                  }
+
+                  @Override
+                  public String getDescription() {
+                      return "This is the second recipe.";
+                  }
+                }
+              }
+              """,
+            """
+              import org.openrewrite.Recipe;
+
+              class MyRecipes {
+                static class /*~~>*/FirstRecipe extends Recipe {
+                  @Override
+                  public String getDisplayName() {
+                      return "First recipe";
+                  }
+
+                  @Override
+                  public String getDescription() {
+                      return "This is the first recipe.";
+                  }
+                }
+
+                static class /*~~>*/SecondRecipe extends Recipe {
+                  @Override
+                  public String getDisplayName() {
+                      return "Second recipe";
+                  }
+
+                  @Override
+                  public String getDescription() {
+                      return "This is the second recipe.";
+                  }
+                }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void exportCompressedShards(@TempDir Path exportDirectory) throws IOException {
+        rewriteRun(
+          spec -> spec.recipe(new FindRecipes(null, exportDirectory.toString(), null)),
+          java(
+            """
+              import org.openrewrite.Recipe;
+
+              class MyRecipe extends Recipe {
+                @Override
+                public String getDisplayName() {
+                    return "My recipe";
+                }
+
+                @Override
+                public String getDescription() {
+                    return "This is my recipe.";
+                }
+              }
+              """,
+            """
+              import org.openrewrite.Recipe;
+
+              class /*~~>*/MyRecipe extends Recipe {
+                @Override
+                public String getDisplayName() {
+                    return "My recipe";
+                }
+
+                @Override
+                public String getDescription() {
+                    return "This is my recipe.";
+                }
+              }
+              """
+          )
+        );
+
+        assertThat(exportDirectory.resolve("recipe-sources-00000.jsonl.gz.partial")).doesNotExist();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+          Files.newInputStream(exportDirectory.resolve("recipe-sources-00000.jsonl.gz"))), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().collect(toList());
+            assertThat(lines).hasSize(1);
+            assertThat(lines.getFirst())
+              .contains("\"displayName\":\"My recipe\"")
+              .contains("\"recipeType\":\"Java\"");
+        }
+    }
+
+    @Test
+    void referenceRecipesAlreadyInFingerprintIndex(@TempDir Path tempDir) {
+        String fingerprintIndex = tempDir.resolve("fingerprints.txt").toString();
+        //language=java
+        String before = """
+          package org.example;
+
+          import org.openrewrite.Recipe;
+
+          class MyRecipe extends Recipe {
+            @Override
+            public String getDisplayName() {
+                return "My recipe";
+            }
+
+            @Override
+            public String getDescription() {
+                return "This is my recipe.";
+            }
+          }
+          """;
+        //language=java
+        String after = """
+          package org.example;
+
+          import org.openrewrite.Recipe;
+
+          class /*~~>*/MyRecipe extends Recipe {
+            @Override
+            public String getDisplayName() {
+                return "My recipe";
+            }
+
+            @Override
+            public String getDescription() {
+                return "This is my recipe.";
+            }
+          }
+          """;
+        AtomicReference<String> reference = new AtomicReference<>();
+        rewriteRun(
+          spec -> spec
+            .recipe(new FindRecipes(null, null, fingerprintIndex))
+            .dataTable(RewriteRecipeSource.Row.class, rows -> {
+                assertThat(rows.getFirst().getSourceCode()).startsWith("fingerprint:");
+                reference.set(rows.getFirst().getSourceCode());
+            })
+            .dataTable(RecipeSourceBlobs.Row.class, blobs -> assertThat(blobs).singleElement().satisfies(blob -> {
+                assertThat(blob.getContentHash()).isEqualTo(reference.get());
+                assertThat(blob.getSourceCode()).startsWith("package org.example;");
+            })),
+          java(before, after)
+        );
+        // A relocated copy of the same recipe in another repository references the blob of the first run
+        rewriteRun(
+          spec -> spec
+            .recipe(new FindRecipes(null, null, fingerprintIndex))
+            .dataTable(RewriteRecipeSource.Row.class, rows ->
+              assertThat(rows.getFirst().getSourceCode()).isEqualTo(reference.get())),
+          java(before.replace("org.example", "org.example.shaded"), after.replace("org.example", "org.example.shaded"))
+        );
+    }
+
+    @Test
+    void recipesInSameSourceFileShareItsSourceCode(@TempDir Path tempDir) throws IOException {
+        Path fingerprintIndex = tempDir.resolve("fingerprints.txt");
+        rewriteRun(
+          spec -> spec
+            .recipe(new FindRecipes(null, null, fingerprintIndex.toString()))
+            .dataTable(RewriteRecipeSource.Row.class, rows -> {
+                assertThat(rows).hasSize(2);
+                assertThat(rows.get(0).getSourceCode()).startsWith("fingerprint:");
+                assertThat(rows.get(1).getSourceCode()).isEqualTo(rows.get(0).getSourceCode());
+            })
+            .dataTable(RecipeSourceBlobs.Row.class, blobs -> assertThat(blobs).singleElement().satisfies(blob ->
+              assertThat(blob.getSourceCode()).startsWith("import org.openrewrite.Recipe;"))),
+          java(
+            """
+              import org.openrewrite.Recipe;
+
+              class MyRecipes {
+                  static class FirstRecipe extends Recipe {
+                      @Override
+                      public String getDisplayName() {
+                          return "First recipe";
+                      }
+
+                      @Override
+                      public String getDescription() {
+                          return "This is the first recipe.";
+                      }
+                  }
+
+                  static class SecondRecipe extends Recipe {
+                      @Override
+                      public String getDisplayName() {
+                          return "Second recipe";
+                      }
+
+                      @Override
+                      public String getDescription() {
+                          return "This is the second recipe.";
+                      }
+                  }
+              }
+              """,
+            """
+              import org.openrewrite.Recipe;
+
+              class MyRecipes {
+                  static class /*~~>*/FirstRecipe extends Recipe {
+                      @Override
+                      public String getDisplayName() {
+                          return "First recipe";
+                      }
+
+                      @Override
+                      public String getDescription() {
+                          return "This is the first recipe.";
+                      }
+                  }
+
+                  static class /*~~>*/SecondRecipe extends Recipe {
+                      @Override
+                      public String getDisplayName() {
+                          return "Second recipe";
+                      }
+
+                      @Override
+                      public String getDescription() {
+                          return "This is the second recipe.";
+                      }
+                  }
+              }
+              """
+          )
+        );
+        assertThat(Files.readAllLines(fingerprintIndex)).hasSize(1);
+    }
 }
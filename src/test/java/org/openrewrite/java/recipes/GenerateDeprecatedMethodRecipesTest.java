@@ -35,7 +35,7 @@ class GenerateDeprecatedMethodRecipesTest implements RewriteTest {
 
     @Override
     public void defaults(RecipeSpec spec) {
-        spec.recipe(new GenerateDeprecatedMethodRecipes());
+        spec.recipe(new GenerateDeprecatedMethodRecipes(null));
     }
 
     @DocumentExample
@@ -199,6 +199,51 @@ class GenerateDeprecatedMethodRecipesTest implements RewriteTest {
         );
     }
 
+    @Test
+    void delegationChainCollapsed() {
+        rewriteRun(
+          java(
+            """
+              package com.example;
+
+              public class Chain {
+                  public String newest(int n, String s) {
+                      return s + n;
+                  }
+
+                  @Deprecated
+                  public String newer(String s, int n) {
+                      return newest(n, s);
+                  }
+
+                  @Deprecated
+                  public String oldest(String s) {
+                      return newer(s, 0);
+                  }
+              }
+              """
+          ),
+          yaml(
+            doesNotExist(),
+            //language=yaml
+            """
+              type: specs.openrewrite.org/v1beta/recipe
+              name: org.openrewrite.recipes.InlineDeprecatedMethods
+              displayName: Inline deprecated delegating methods
+              description: Automatically generated recipes to inline deprecated method calls that delegate to other methods in the same class.
+              recipeList:
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Chain newer(java.lang.String, int)'
+                    replacement: 'newest(n, s)'
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Chain oldest(java.lang.String)'
+                    replacement: 'newest(0, s)'
+              """,
+            spec -> spec.path("src/main/resources/META-INF/rewrite/inline-deprecated-methods.yml")
+          )
+        );
+    }
+
     @Test
     void nonDeprecatedMethodIgnored() {
         rewriteRun(
@@ -352,6 +397,67 @@ class GenerateDeprecatedMethodRecipesTest implements RewriteTest {
         );
     }
 
+    @Test
+    void commentBetweenTokensReplacedBySpace() {
+        rewriteRun(
+          java(
+            """
+              package com.example;
+
+              public class Commented {
+                  public int newMethod(int n) {
+                      return n;
+                  }
+
+                  @Deprecated
+                  public int oldMethod(int n) {
+                      return newMethod(-/* negated */-n);
+                  }
+              }
+              """
+          ),
+          yaml(
+            doesNotExist(),
+            //language=yaml
+            """
+              type: specs.openrewrite.org/v1beta/recipe
+              name: org.openrewrite.recipes.InlineDeprecatedMethods
+              displayName: Inline deprecated delegating methods
+              description: Automatically generated recipes to inline deprecated method calls that delegate to other methods in the same class.
+              recipeList:
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Commented oldMethod(int)'
+                    replacement: 'newMethod(- -n)'
+              """,
+            spec -> spec.path("src/main/resources/META-INF/rewrite/inline-deprecated-methods.yml")
+          )
+        );
+    }
+
+    @Test
+    void textBlockArgumentIgnored() {
+        rewriteRun(
+          java(
+            """
+              package com.example;
+
+              public class TextBlock {
+                  public void newMethod(String s, String defaultVal) {
+                  }
+
+                  @Deprecated
+                  public void oldMethod(String s) {
+                      newMethod(s, \"""
+                              first
+                              second
+                              \""");
+                  }
+              }
+              """
+          )
+        );
+    }
+
     @Test
     void externalCallIgnored() {
         rewriteRun(
@@ -419,6 +525,146 @@ class GenerateDeprecatedMethodRecipesTest implements RewriteTest {
         );
     }
 
+    @Test
+    void prunesStaleEntries() {
+        rewriteRun(
+          spec -> spec.recipe(new GenerateDeprecatedMethodRecipes(true)),
+          java(
+            """
+              package com.example;
+
+              public class Foo {
+                  public Foo(String a, String b) {
+                  }
+
+                  @Deprecated
+                  public Foo(String a) {
+                      this(a, null);
+                  }
+              }
+              """
+          ),
+          yaml(
+            //language=yaml
+            """
+              type: specs.openrewrite.org/v1beta/recipe
+              name: org.openrewrite.recipes.InlineDeprecatedMethods
+              displayName: Inline deprecated delegating methods
+              description: Existing description.
+              recipeList:
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo removed(java.lang.String)'
+                    replacement: 'removedNew(s)'
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo <constructor>(java.lang.String)'
+                    replacement: 'this(a, null)'
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo wildcard(..)'
+                    replacement: 'wildcardNew()'
+              """,
+            //language=yaml
+            """
+              type: specs.openrewrite.org/v1beta/recipe
+              name: org.openrewrite.recipes.InlineDeprecatedMethods
+              displayName: Inline deprecated delegating methods
+              description: Existing description.
+              recipeList:
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo <constructor>(java.lang.String)'
+                    replacement: 'this(a, null)'
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo wildcard(..)'
+                    replacement: 'wildcardNew()'
+              """,
+            spec -> spec.path("src/main/resources/META-INF/rewrite/inline-deprecated-methods.yml")
+          )
+        );
+    }
+
+    @Test
+    void deletesFileWhenAllEntriesStale() {
+        rewriteRun(
+          spec -> spec.recipe(new GenerateDeprecatedMethodRecipes(true)),
+          java(
+            """
+              package com.example;
+
+              public class Foo {
+                  public void current(String s) {
+                  }
+              }
+              """
+          ),
+          yaml(
+            //language=yaml
+            """
+              type: specs.openrewrite.org/v1beta/recipe
+              name: org.openrewrite.recipes.InlineDeprecatedMethods
+              displayName: Inline deprecated delegating methods
+              description: Existing description.
+              recipeList:
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo removed(java.lang.String)'
+                    replacement: 'current(s)'
+              """,
+            null,
+            spec -> spec.path("src/main/resources/META-INF/rewrite/inline-deprecated-methods.yml")
+          )
+        );
+    }
+
+    @Test
+    void removesRecipeWhenAllItsEntriesStale() {
+        rewriteRun(
+          spec -> spec.recipe(new GenerateDeprecatedMethodRecipes(true)),
+          java(
+            """
+              package com.example;
+
+              public class Foo {
+                  public void current(String s) {
+                  }
+              }
+              """
+          ),
+          yaml(
+            //language=yaml
+            """
+              type: specs.openrewrite.org/v1beta/recipe
+              name: org.openrewrite.recipes.InlineDeprecatedMethods
+              displayName: Inline deprecated delegating methods
+              description: Existing description.
+              recipeList:
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo removed(java.lang.String)'
+                    replacement: 'current(s)'
+              ---
+              type: specs.openrewrite.org/v1beta/recipe
+              name: org.openrewrite.recipes.InlineWildcardMethods
+              displayName: Inline wildcard methods
+              description: Existing description.
+              recipeList:
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo wildcard(..)'
+                    replacement: 'wildcardNew()'
+              """,
+            //language=yaml
+            """
+              ---
+              type: specs.openrewrite.org/v1beta/recipe
+              name: org.openrewrite.recipes.InlineWildcardMethods
+              displayName: Inline wildcard methods
+              description: Existing description.
+              recipeList:
+                - org.openrewrite.java.InlineMethodCalls:
+                    methodPattern: 'com.example.Foo wildcard(..)'
+                    replacement: 'wildcardNew()'
+              """,
+            spec -> spec.path("src/main/resources/META-INF/rewrite/inline-deprecated-methods.yml")
+          )
+        );
+    }
+
     @Test
     void replacesMatchingMethodPattern() {
         rewriteRun(
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.java.recipes.InlineMethodCallsBatch.InlineMethodCall;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class InlineMethodCallsBatchTest implements RewriteTest {
+
+    private static final List<InlineMethodCall> METHOD_CALLS = List.of(
+      new InlineMethodCall("org.openrewrite.java.trait.Traits literal()", "new Literal.Matcher()",
+        Set.of("org.openrewrite.java.trait.Literal"), null, Set.of("rewrite-java-8.64.0")),
+      new InlineMethodCall("org.openrewrite.java.trait.Traits variableAccess()", "new VariableAccess.Matcher()",
+        Set.of("org.openrewrite.java.trait.VariableAccess"), null, Set.of("rewrite-java-8.64.0")),
+      new InlineMethodCall("org.openrewrite.java.trait.Traits methodAccess(java.lang.String)",
+        "new MethodAccess.Matcher(methodPattern)",
+        Set.of("org.openrewrite.java.trait.MethodAccess"), null, Set.of("rewrite-java-8.64.0"))
+    );
+
+    @Language("java")
+    private static final String TRAITS_USAGE = """
+      import org.openrewrite.java.trait.Literal;
+      import org.openrewrite.java.trait.Traits;
+      import org.openrewrite.java.trait.VariableAccess;
+
+      class Test {
+          void test() {
+              Literal.Matcher literal = Traits.literal();
+              VariableAccess.Matcher variableAccess = Traits.variableAccess();
+          }
+      }
+      """;
+
+    @Language("java")
+    private static final String TRAITS_INLINED = """
+      import org.openrewrite.java.trait.Literal;
+      import org.openrewrite.java.trait.VariableAccess;
+
+      class Test {
+          void test() {
+              Literal.Matcher literal = new Literal.Matcher();
+              VariableAccess.Matcher variableAccess = new VariableAccess.Matcher();
+          }
+      }
+      """;
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new InlineMethodCallsBatch(METHOD_CALLS));
+    }
+
+    @DocumentExample
+    @Test
+    void inlinesAllUsedMethods() {
+        rewriteRun(
+          java(TRAITS_USAGE, TRAITS_INLINED)
+        );
+    }
+
+    @Test
+    void singlePassOverSourceFile() {
+        AtomicInteger visits = new AtomicInteger();
+        rewriteRun(
+          spec -> spec
+            .recipe(RewriteTest.toRecipe(() -> new InlineMethodCallsBatch.Inliner(METHOD_CALLS) {
+                @Override
+                public J visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                    visits.incrementAndGet();
+                    return super.visitCompilationUnit(cu, ctx);
+                }
+            }))
+            .cycles(1)
+            .expectedCyclesThatMakeChanges(1),
+          java(TRAITS_USAGE, TRAITS_INLINED)
+        );
+        // Both methods were inlined by a single visit of the compilation unit
+        assertThat(visits).hasValue(1);
+    }
+
+    @Test
+    void callsOnReceiverAndParametersSubstituted() {
+        rewriteRun(
+          spec -> spec.recipe(new InlineMethodCallsBatch(List.of(
+            new InlineMethodCall("com.example.Greeter greet(java.lang.String)", "this.greet(name, \"!\")",
+              null, null, null),
+            new InlineMethodCall("com.example.Greeter wave()", "greet(\"wave\", \"~\")",
+              null, null, null)
+          ))),
+          java(
+            """
+              package com.example;
+
+              public class Greeter {
+                  public String greet(String name) {
+                      return greet(name, "!");
+                  }
+
+                  public String wave() {
+                      return greet("wave", "~");
+                  }
+
+                  public String greet(String name, String suffix) {
+                      return name + suffix;
+                  }
+              }
+              """
+          ),
+          java(
+            """
+              package com.example;
+
+              class Test {
+                  void test(Greeter greeter) {
+                      greeter.greet("name");
+                      greeter.wave();
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              class Test {
+                  void test(Greeter greeter) {
+                      greeter.greet("name", "!");
+                      greeter.greet("wave", "~");
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noneUsed() {
+        rewriteRun(
+          java(
+            """
+              import org.openrewrite.java.trait.Literal;
+
+              class Test {
+                  Literal.Matcher literal = new Literal.Matcher();
+              }
+              """
+          )
+        );
+    }
+}
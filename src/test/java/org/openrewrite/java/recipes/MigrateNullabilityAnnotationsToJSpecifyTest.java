@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+
+class MigrateNullabilityAnnotationsToJSpecifyTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MigrateNullabilityAnnotationsToJSpecify())
+          .parser(JavaParser.fromJavaVersion()
+            .classpath(JavaParser.runtimeClasspath())
+            .dependsOn(
+              //language=java
+              """
+                package org.openrewrite.internal.lang;
+                public @interface Nullable {}
+                """,
+              //language=java
+              """
+                package org.openrewrite.internal.lang;
+                public @interface NonNull {}
+                """,
+              //language=java
+              """
+                package org.openrewrite.internal.lang;
+                public @interface NonNullApi {}
+                """
+            ));
+    }
+
+    @DocumentExample
+    @Test
+    void allAnnotationsInOnePass() {
+        rewriteRun(
+          java(
+            """
+              import org.openrewrite.internal.lang.NonNull;
+              import org.openrewrite.internal.lang.Nullable;
+
+              class Test {
+                  @Nullable String name;
+
+                  @NonNull String greet(@Nullable String greeting) {
+                      return greeting + name;
+                  }
+              }
+              """,
+            """
+              import org.jspecify.annotations.NonNull;
+              import org.jspecify.annotations.Nullable;
+
+              class Test {
+                  @Nullable String name;
+
+                  @NonNull String greet(@Nullable String greeting) {
+                      return greeting + name;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void nonNullApiBecomesNullMarked() {
+        rewriteRun(
+          java(
+            """
+              @NonNullApi
+              package org.example;
+
+              import org.openrewrite.internal.lang.NonNullApi;
+              """,
+            """
+              @NullMarked
+              package org.example;
+
+              import org.jspecify.annotations.NullMarked;
+              """,
+            spec -> spec.path("org/example/package-info.java")
+          )
+        );
+    }
+
+    @Test
+    void fullyQualifiedAnnotation() {
+        rewriteRun(
+          java(
+            """
+              class Test {
+                  @org.openrewrite.internal.lang.Nullable String name;
+              }
+              """,
+            """
+              class Test {
+                  @org.jspecify.annotations.Nullable String name;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void classLiteral() {
+        rewriteRun(
+          java(
+            """
+              import org.openrewrite.internal.lang.Nullable;
+
+              class Test {
+                  Class<?> type = Nullable.class;
+              }
+              """,
+            """
+              import org.jspecify.annotations.Nullable;
+
+              class Test {
+                  Class<?> type = Nullable.class;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void javadocLink() {
+        rewriteRun(
+          java(
+            """
+              import org.openrewrite.internal.lang.NonNullApi;
+
+              /**
+               * Like {@link NonNullApi}.
+               */
+              class Test {
+              }
+              """,
+            """
+              import org.jspecify.annotations.NullMarked;
+
+              /**
+               * Like {@link NullMarked}.
+               */
+              class Test {
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void variableNamedLikeAnnotationNotChanged() {
+        rewriteRun(
+          java(
+            """
+              class Test {
+                  String NonNullApi = "";
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void declarativeRecipe() {
+        rewriteRun(
+          spec -> spec.recipeFromResources("org.openrewrite.java.jspecify.MigrateFromOpenRewriteAnnotations"),
+          java(
+            """
+              import org.openrewrite.internal.lang.Nullable;
+
+              class Test {
+                  Class<?> type = Nullable.class;
+              }
+              """,
+            """
+              import org.jspecify.annotations.Nullable;
+
+              class Test {
+                  Class<?> type = Nullable.class;
+              }
+              """
+          )
+        );
+    }
+}
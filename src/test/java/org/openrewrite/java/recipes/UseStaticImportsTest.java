@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.List;
+
+import static org.openrewrite.java.Assertions.java;
+
+class UseStaticImportsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new UseStaticImports(List.of(
+          "java.util.Collections *(..)",
+          "java.util.stream.Collectors *(..)"
+        )));
+    }
+
+    @DocumentExample
+    @Test
+    void allPatternsInOnePass() {
+        rewriteRun(
+          java(
+            """
+              import java.util.Collections;
+              import java.util.List;
+              import java.util.stream.Collectors;
+
+              class Test {
+                  List<String> empty = Collections.emptyList();
+                  List<String> other = Collections.emptyList();
+                  List<String> copy = empty.stream().collect(Collectors.toList());
+              }
+              """,
+            """
+              import java.util.List;
+
+              import static java.util.Collections.emptyList;
+              import static java.util.stream.Collectors.toList;
+
+              class Test {
+                  List<String> empty = emptyList();
+                  List<String> other = emptyList();
+                  List<String> copy = empty.stream().collect(toList());
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepTypeImportWhenStillUsed() {
+        rewriteRun(
+          java(
+            """
+              import java.util.Collections;
+              import java.util.List;
+
+              class Test {
+                  List<String> empty = Collections.emptyList();
+                  Class<?> type = Collections.class;
+              }
+              """,
+            """
+              import java.util.Collections;
+              import java.util.List;
+
+              import static java.util.Collections.emptyList;
+
+              class Test {
+                  List<String> empty = emptyList();
+                  Class<?> type = Collections.class;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noChangeWhenNameIsDeclared() {
+        rewriteRun(
+          java(
+            """
+              import java.util.Collections;
+              import java.util.List;
+
+              class Test {
+                  List<String> empty = Collections.emptyList();
+
+                  List<String> emptyList() {
+                      return empty;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noChangeWhenNameIsInherited() {
+        rewriteRun(
+          java(
+            """
+              import java.util.List;
+
+              abstract class Base {
+                  abstract List<String> emptyList();
+              }
+              """
+          ),
+          java(
+            """
+              import java.util.Collections;
+              import java.util.List;
+
+              abstract class Test extends Base {
+                  List<String> empty = Collections.emptyList();
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void onlyFirstOfTypesSharingMethodName() {
+        rewriteRun(
+          spec -> spec.recipe(new UseStaticImports(List.of(
+            "com.example.A *(..)",
+            "com.example.B *(..)"
+          ))),
+          java(
+            """
+              package com.example;
+
+              public class A {
+                  public static A of() {
+                      return new A();
+                  }
+              }
+              """
+          ),
+          java(
+            """
+              package com.example;
+
+              public class B {
+                  public static B of() {
+                      return new B();
+                  }
+              }
+              """
+          ),
+          java(
+            """
+              import com.example.A;
+              import com.example.B;
+
+              class Test {
+                  A a = A.of();
+                  B b = B.of();
+              }
+              """,
+            """
+              import com.example.A;
+              import com.example.B;
+
+              import static com.example.A.of;
+
+              class Test {
+                  A a = of();
+                  B b = B.of();
+              }
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.recipes;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.List;
+
+import static org.openrewrite.java.Assertions.java;
+
+class UsesAnyMethodTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new UsesAnyMethod(List.of(
+          "java.util.Collections emptyList()",
+          "java.util.ArrayList ArrayList(int)",
+          "java.lang.String *(..)"
+        ), null));
+    }
+
+    @DocumentExample
+    @Test
+    void findsMethod() {
+        rewriteRun(
+          java(
+            """
+              import java.util.Collections;
+              import java.util.List;
+
+              class Test {
+                  List<String> list = Collections.emptyList();
+              }
+              """,
+            """
+              /*~~>*/import java.util.Collections;
+              import java.util.List;
+
+              class Test {
+                  List<String> list = Collections.emptyList();
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void findsConstructorWrittenWithTypeName() {
+        rewriteRun(
+          java(
+            """
+              import java.util.ArrayList;
+              import java.util.List;
+
+              class Test {
+                  List<String> list = new ArrayList<>(1);
+              }
+              """,
+            """
+              /*~~>*/import java.util.ArrayList;
+              import java.util.List;
+
+              class Test {
+                  List<String> list = new ArrayList<>(1);
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void findsWildcardPattern() {
+        rewriteRun(
+          java(
+            """
+              class Test {
+                  int length = "test".length();
+              }
+              """,
+            """
+              /*~~>*/class Test {
+                  int length = "test".length();
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void findsOverride() {
+        rewriteRun(
+          spec -> spec.recipe(new UsesAnyMethod(List.of("java.util.List size()"), true)),
+          java(
+            """
+              import java.util.ArrayList;
+
+              class Test {
+                  int size = new ArrayList<String>().size();
+              }
+              """,
+            """
+              /*~~>*/import java.util.ArrayList;
+
+              class Test {
+                  int size = new ArrayList<String>().size();
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void overrideNotFoundByDefault() {
+        rewriteRun(
+          spec -> spec.recipe(new UsesAnyMethod(List.of("java.util.List size()"), null)),
+          java(
+            """
+              import java.util.ArrayList;
+
+              class Test {
+                  int size = new ArrayList<String>().size();
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noneUsed() {
+        rewriteRun(
+          java(
+            """
+              import java.util.ArrayList;
+              import java.util.List;
+
+              class Test {
+                  List<String> list = new ArrayList<>();
+              }
+              """
+          )
+        );
+    }
+}